@@ -0,0 +1,65 @@
+package com.swissclassic.mindflow_server.util;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.JWTVerifier;
+import com.swissclassic.mindflow_server.config.JwtProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-request cost of verifying an access token in {@code JwtAuthenticationFilter}.
+ * <ul>
+ *   <li>{@code rebuildVerifier}: the previous code path, a new {@link Algorithm} and {@link JWTVerifier} per call</li>
+ *   <li>{@code sharedVerifier}: one pre-built verifier, signature still checked on every call</li>
+ *   <li>{@code validateJwtToken}: {@link JwtUtils#validateJwtToken} with the kid registry and verified-token cache</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+public class JwtVerifyBenchmark {
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private JwtUtils jwtUtils;
+    private JWTVerifier sharedVerifier;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setExpirationMs(Duration.ofHours(1).toMillis());
+        properties.setRefreshExpirationMs(Duration.ofDays(15).toMillis());
+        properties.setKeyId("bench");
+        properties.setPreviousKeys(Map.of("old", "retired-secret"));
+        properties.setVerifiedCacheMaxSize(10_000);
+        properties.setVerifiedCacheMaxTtl(Duration.ofMinutes(5));
+
+        jwtUtils = new JwtUtils(properties);
+        sharedVerifier = JWT.require(Algorithm.HMAC256(SECRET.getBytes(StandardCharsets.UTF_8))).build();
+        token = jwtUtils.generateJwtToken("benchmark-user");
+    }
+
+    @Benchmark
+    public DecodedJWT rebuildVerifier() {
+        return JWT.require(Algorithm.HMAC256(SECRET.getBytes()))
+                  .build()
+                  .verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT sharedVerifier() {
+        return sharedVerifier.verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT validateJwtToken() throws Exception {
+        return jwtUtils.validateJwtToken(token);
+    }
+}
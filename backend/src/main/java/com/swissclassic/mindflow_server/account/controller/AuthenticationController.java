@@ -4,6 +4,8 @@ import com.swissclassic.mindflow_server.account.model.dto.*;
 import com.swissclassic.mindflow_server.account.model.entity.User;
 import com.swissclassic.mindflow_server.account.repository.UserRepository;
 import com.swissclassic.mindflow_server.account.service.PasswordResetService;
+import com.swissclassic.mindflow_server.account.service.RefreshSessionStore;
+import com.swissclassic.mindflow_server.account.service.TokenVersionService;
 import com.swissclassic.mindflow_server.conversation.repository.ChatLogRepository;
 import com.swissclassic.mindflow_server.mindmap.repository.TopicRepository;
 import com.swissclassic.mindflow_server.util.JwtUtils;
@@ -20,6 +22,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.security.authentication.*;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
@@ -51,6 +54,12 @@ public class AuthenticationController {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private RefreshSessionStore refreshSessionStore;
+
     /**
      * 새로운 사용자를 시스템에 등록합니다.
      * <p>
@@ -110,7 +119,8 @@ public class AuthenticationController {
     @PostMapping("/login")
     @Operation(summary = "로그인", description = "계정 ID와 비밀번호로 로그인하고 JWT 토큰을 발급받습니다.")
     @ApiResponses(value = {@ApiResponse(responseCode = "200", description = "로그인 성공"), @ApiResponse(responseCode = "401", description = "인증 실패"), @ApiResponse(responseCode = "400", description = "잘못된 요청")})
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                              @RequestHeader(value = HttpHeaders.USER_AGENT, required = false) String userAgent) {
         try {
             // Authenticate the user
             Authentication authentication = authenticationManager.authenticate(
@@ -128,12 +138,9 @@ public class AuthenticationController {
                                  .setAuthentication(authentication);
 
             // Generate JWT token
-            String accessToken = jwtUtils.generateJwtToken(loginRequest.getAccountId());
-            String refreshToken = jwtUtils.generateRefreshToken(user.getId()
-                                                                    .toString());
-
-            user.setRefreshToken(refreshToken);
-            userRepository.save(user);
+            String accessToken = jwtUtils.generateJwtToken(user, tokenVersionService.currentVersion(user.getId()));
+            // 갱신 토큰은 users 테이블이 아니라 기기별 세션 저장소(Redis)에 기록
+            String refreshToken = refreshSessionStore.create(user, userAgent);
 
 
             // Return the JWT in the response
@@ -145,7 +152,45 @@ public class AuthenticationController {
     }
 
     /**
-     * 사용자의 로그아웃을 처리하고 갱신 토큰을 무효화합니다.
+     * 현재 기기에서 로그아웃합니다. 전달한 갱신 토큰의 세션만 무효화하고 다른 기기의 로그인은 유지됩니다.
+     * <p>
+     * 이 기기의 접근 토큰은 클라이언트가 버리며, 만료 시간이 지나면 사용할 수 없습니다.
+     * <p>
+     *
+     * @param refreshTokenRequest 로그아웃 요청 객체:
+     *                            <p>
+     *                            - refreshToken: 이 기기가 마지막으로 발급받은 갱신 토큰
+     *                            <p>
+     * @return ResponseEntity:
+     * <p>
+     * - 200 OK: 로그아웃 성공 메시지 (세션이 이미 없어도 성공)
+     * <p>
+     * - 401 Unauthorized: 인증되지 않은 사용자
+     * <p>
+     * - 401 Unauthorized: 갱신 토큰이 없는 경우
+     */
+    @PostMapping("/logout")
+    @Operation(summary = "로그아웃", description = "현재 기기의 갱신 토큰 세션만 무효화합니다.")
+    public ResponseEntity<?> logout(@RequestBody RefreshTokenRequest refreshTokenRequest,
+                                    @AuthenticationPrincipal User currentUser) {
+        if (currentUser == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body("User not authenticated.");
+        }
+        String refreshToken = refreshTokenRequest.getRefreshToken();
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body("Invalid refresh token.");
+        }
+        // 본인 세션의 토큰일 때만 삭제됨
+        refreshSessionStore.revokeByToken(currentUser.getId(), refreshToken);
+
+        return ResponseEntity.status(HttpStatus.OK)
+                             .body("Logged out successfully.");
+    }
+
+    /**
+     * 모든 기기에서 로그아웃합니다. 모든 갱신 토큰 세션과 이미 발급된 접근 토큰을 무효화합니다.
      * <p>
      *
      * @param userId 로그아웃할 사용자의 ID
@@ -156,29 +201,135 @@ public class AuthenticationController {
      * <p>
      * - 401 Unauthorized: 인증되지 않은 사용자
      * <p>
+     * - 401 Unauthorized: 다른 사용자의 ID
+     * <p>
      * - 401 Unauthorized: 유효하지 않은 사용자 ID
      */
-    @PostMapping("/logout")
-    @Operation(summary = "로그아웃", description = "사용자의 로그아웃을 처리하고 갱신 토큰을 무효화합니다.")
-    public ResponseEntity<?> logout(@RequestBody Long userId) {
+    @PostMapping("/logout-all")
+    @Operation(summary = "모든 기기에서 로그아웃", description = "모든 기기의 갱신 토큰 세션과 접근 토큰을 무효화합니다.")
+    public ResponseEntity<?> logoutAll(@RequestBody Long userId, @AuthenticationPrincipal User currentUser) {
         Authentication auth = SecurityContextHolder.getContext()
                                                    .getAuthentication();
         if (auth == null || !auth.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                                  .body("User not authenticated.");
         }
-        // 세션 토큰 날리기
-        User user = userRepository.findById(userId)
-                                  .orElse(null);
-        if (user == null) {
+        if (currentUser == null || !userId.equals(currentUser.getId())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body("You are not allowed to log out other users.");
+        }
+        if (!userRepository.existsById(userId)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                                  .body("Invalid user id.");
         }
-        user.setRefreshToken(null);
-        userRepository.save(user);
+        // 모든 기기의 갱신 토큰 세션 삭제
+        refreshSessionStore.revokeAll(userId);
+        // 이미 발급된 access token 도 무효화
+        tokenVersionService.revokeAll(userId);
 
         return ResponseEntity.status(HttpStatus.OK)
-                             .body("Logged out successfully.");
+                             .body("Logged out from all devices.");
+    }
+
+    /**
+     * 갱신 토큰으로 새 접근 토큰과 갱신 토큰을 발급합니다.
+     * <p>
+     * 사용한 갱신 토큰은 폐기되고(rotation), 이미 교체된 토큰이 다시 들어오면 탈취로 보고 해당 기기 세션 전체를 무효화합니다.
+     * <p>
+     *
+     * @param refreshTokenRequest 갱신 토큰 요청 객체:
+     *                            <p>
+     *                            - refreshToken: 마지막으로 발급받은 갱신 토큰
+     *                            <p>
+     * @return ResponseEntity:
+     * <p>
+     * - 200 OK: AuthResponse (새 접근 토큰과 갱신 토큰)
+     * <p>
+     * - 401 Unauthorized: 유효하지 않거나 이미 사용된 갱신 토큰
+     */
+    @PostMapping("/refresh")
+    @Operation(summary = "토큰 갱신", description = "갱신 토큰으로 새 접근 토큰과 갱신 토큰을 발급합니다. 갱신 토큰은 한 번만 사용할 수 있습니다.")
+    public ResponseEntity<?> refreshToken(@RequestBody RefreshTokenRequest refreshTokenRequest) {
+        String presented = refreshTokenRequest.getRefreshToken();
+        if (presented == null || presented.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body("Invalid refresh token.");
+        }
+        String userId;
+        try {
+            userId = jwtUtils.validateJwtToken(presented)
+                             .getSubject();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body("Invalid refresh token.");
+        }
+
+        String next = jwtUtils.generateRefreshToken(userId);
+        RefreshSessionStore.Rotation rotation = refreshSessionStore.rotate(presented, next);
+        if (rotation.result() == RefreshSessionStore.Result.REUSED) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body("Refresh token was already used. Please log in again.");
+        }
+        if (rotation.result() != RefreshSessionStore.Result.ROTATED) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body("Invalid refresh token.");
+        }
+
+        User user = rotation.user();
+        String accessToken = jwtUtils.generateJwtToken(user, tokenVersionService.currentVersion(user.getId()));
+        return ResponseEntity.ok(new AuthResponse(user.getId(), user.getDisplayName(), accessToken, next));
+    }
+
+    /**
+     * 로그인된 기기(갱신 토큰 세션) 목록을 조회합니다.
+     * <p>
+     *
+     * @param userId 사용자 ID
+     *               <p>
+     * @return ResponseEntity:
+     * <p>
+     * - 200 OK: 세션 목록 (세션 ID, 기기 정보, 생성/마지막 사용 시각)
+     * <p>
+     * - 401 Unauthorized: 본인이 아닌 경우
+     */
+    @GetMapping("/sessions/{userId}")
+    @Operation(summary = "로그인 기기 목록", description = "사용자의 기기별 로그인 세션을 조회합니다.")
+    public ResponseEntity<?> getSessions(@PathVariable Long userId, @AuthenticationPrincipal User currentUser) {
+        if (currentUser == null || !userId.equals(currentUser.getId())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body("You are not allowed to get other user's sessions.");
+        }
+        return ResponseEntity.ok(refreshSessionStore.findSessions(userId));
+    }
+
+    /**
+     * 기기 하나의 로그인 세션을 종료합니다.
+     * <p>
+     *
+     * @param userId    사용자 ID
+     * @param sessionId 종료할 세션 ID
+     *                  <p>
+     * @return ResponseEntity:
+     * <p>
+     * - 200 OK: 세션 종료
+     * <p>
+     * - 401 Unauthorized: 본인이 아닌 경우
+     * <p>
+     * - 404 Not Found: 없는 세션
+     */
+    @DeleteMapping("/sessions/{userId}/{sessionId}")
+    @Operation(summary = "기기 로그아웃", description = "해당 기기의 갱신 토큰 세션을 무효화합니다.")
+    public ResponseEntity<?> revokeSession(@PathVariable Long userId, @PathVariable String sessionId,
+                                           @AuthenticationPrincipal User currentUser) {
+        if (currentUser == null || !userId.equals(currentUser.getId())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body("You are not allowed to revoke other user's sessions.");
+        }
+        if (!refreshSessionStore.revoke(userId, sessionId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                 .body("Session not found.");
+        }
+        return ResponseEntity.ok("Session revoked.");
     }
 
     /**
@@ -214,6 +365,8 @@ public class AuthenticationController {
         }
         // 계정 정보 삭제
         userRepository.delete(user);
+        tokenVersionService.revokeAll(userId);
+        refreshSessionStore.revokeAll(userId);
         // mongodb 삭제
         chatLogRepository.deleteAllByUserId(userId);
         // neo4j 삭제
@@ -6,6 +6,8 @@ import com.swissclassic.mindflow_server.account.model.entity.OAuth2UserWrapper;
 import com.swissclassic.mindflow_server.account.model.entity.OAuthProvider;
 import com.swissclassic.mindflow_server.account.model.entity.User;
 import com.swissclassic.mindflow_server.account.repository.UserRepository;
+import com.swissclassic.mindflow_server.account.service.RefreshSessionStore;
+import com.swissclassic.mindflow_server.account.service.TokenVersionService;
 import com.swissclassic.mindflow_server.account.service.UserService;
 import com.swissclassic.mindflow_server.util.JwtUtils;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,6 +15,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -34,6 +37,12 @@ public class OAuth2Controller {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private RefreshSessionStore refreshSessionStore;
+
     @Value("${spring.security.oauth2.client.registration.google.client-id}")
     private String googleClientId;
     @Value("${spring.security.oauth2.client.registration.kakao.client-id}")
@@ -69,18 +78,15 @@ public class OAuth2Controller {
     @GetMapping("/oauth2/callback/{provider}")
     @Operation(summary = "OAuth2 콜백 처리", description = "소셜 로그인 후 콜백을 처리하고 JWT 토큰을 발급합니다.")
     public ResponseEntity<?> handleOAuthCallback(
-            @PathVariable String provider, @RequestParam String code
+            @PathVariable String provider, @RequestParam String code,
+            @RequestHeader(value = HttpHeaders.USER_AGENT, required = false) String userAgent
     ) {
         try {
             OAuth2UserWrapper oAuth2User = userService.processOAuthLogin(provider, code);
-            String accessToken = jwtUtils.generateJwtToken(oAuth2User.getUser()
-                                                                     .getAccountId());
-            String refreshToken = jwtUtils.generateRefreshToken(oAuth2User.getUser()
-                                                                          .getId()
-                                                                          .toString());
-            User user = oAuth2User.getUser();
-            user.setRefreshToken(refreshToken);
-            userRepository.save(user);
+            String accessToken = jwtUtils.generateJwtToken(oAuth2User.getUser(), tokenVersionService.currentVersion(
+                    oAuth2User.getUser()
+                              .getId()));
+            String refreshToken = refreshSessionStore.create(oAuth2User.getUser(), userAgent);
             log.debug("Successfully generated JWT token");
             return ResponseEntity.ok(new AuthResponse(oAuth2User.getUser()
                                                                 .getId(), oAuth2User.getUser()
@@ -4,6 +4,8 @@ import com.swissclassic.mindflow_server.account.model.dto.EditUserProfileRequest
 import com.swissclassic.mindflow_server.account.model.dto.UserProfileResponse;
 import com.swissclassic.mindflow_server.account.model.entity.User;
 import com.swissclassic.mindflow_server.account.repository.UserRepository;
+import com.swissclassic.mindflow_server.account.service.RefreshSessionStore;
+import com.swissclassic.mindflow_server.account.service.TokenVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +27,12 @@ public class UserProfileController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private RefreshSessionStore refreshSessionStore;
+
     @PostMapping("/profiles/{userId}")
     @Operation(summary = "프로필 조회", description = "사용자의 userId에 따라 프로필을 조회합니다.",
             security = {@SecurityRequirement(name = "bearer-jwt")})
@@ -59,7 +67,7 @@ public class UserProfileController {
     }
 
     @PostMapping("/profiles/{userId}/patch")
-    @Operation(summary = "프로필 수정", description = "사용자의 userId에 따라 프로필을 수정합니다.",
+    @Operation(summary = "프로필 수정", description = "사용자의 userId에 따라 프로필을 수정합니다. 수정 후에는 모든 기기에서 다시 로그인해야 합니다.",
             security = {@SecurityRequirement(name = "bearer-jwt")})
     public ResponseEntity<?> editUserProfile(
             @PathVariable Long userId, @RequestBody EditUserProfileRequest editUserProfileRequest,
@@ -82,6 +90,9 @@ public class UserProfileController {
         user.setPassword(passwordEncoder.encode(editUserProfileRequest.getPassword()));
         user.setEmail(editUserProfileRequest.getEmail());
         userRepository.save(user);
+        // 아이디와 비밀번호가 바뀌었으므로 이전 토큰(다른 기기 포함)은 모두 무효화
+        refreshSessionStore.revokeAll(userId);
+        tokenVersionService.revokeAll(userId);
         return ResponseEntity.status(HttpStatus.OK)
                              .body("Changed profile successfully.");
     }
@@ -0,0 +1,16 @@
+package com.swissclassic.mindflow_server.account.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A logged-in device of the user (one refresh-token session).
+ */
+@Getter
+@AllArgsConstructor
+public class RefreshSessionInfo {
+    private String sessionId;
+    private String device;
+    private long createdAt;
+    private long lastUsedAt;
+}
@@ -0,0 +1,11 @@
+package com.swissclassic.mindflow_server.account.model.dto;
+
+import lombok.Data;
+
+/**
+ * DTO for refresh token requests.
+ */
+@Data
+public class RefreshTokenRequest {
+    private String refreshToken;
+}
@@ -0,0 +1,82 @@
+package com.swissclassic.mindflow_server.account.model.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.time.Instant;
+
+/**
+ * Outgoing mail waiting in the {@code mail_outbox} collection.
+ * <p>
+ * Messages are written here by the request thread and delivered later by {@code MailOutboxService}, so that SMTP
+ * latency or outages never block an API call. Delivered messages are removed; messages that keep failing stay in
+ * the collection with status {@link Status#FAILED} for inspection, without their body.
+ * <p>
+ * {@code expires_at} is covered by a TTL index: a message that is still undelivered at that time (e.g. a password
+ * reset code that is no longer valid) is never sent and the document is deleted, and FAILED messages are deleted
+ * after a retention period.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "mail_outbox")
+public class MailOutboxMessage {
+
+    public enum Status {
+        PENDING, SENDING, FAILED
+    }
+
+    @Id
+    private String id;
+    @Field(name = "from")
+    private String from;
+    @Field(name = "to")
+    private String[] to;
+    @Field(name = "subject")
+    private String subject;
+    @Field(name = "text")
+    private String text;
+    @Field(name = "status")
+    private Status status;
+    @Field(name = "attempts")
+    private int attempts;
+    @Field(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+    @Field(name = "locked_until")
+    private Instant lockedUntil;
+    @Field(name = "last_error")
+    private String lastError;
+    @Field(name = "created_at")
+    private Instant createdAt;
+    @Field(name = "expires_at")
+    private Instant expiresAt;
+
+    /**
+     * @param message   the message to send
+     * @param expiresAt when the message becomes pointless to deliver, or null if it never does
+     */
+    public static MailOutboxMessage pending(SimpleMailMessage message, Instant expiresAt) {
+        MailOutboxMessage outbox = new MailOutboxMessage();
+        outbox.setFrom(message.getFrom());
+        outbox.setTo(message.getTo());
+        outbox.setSubject(message.getSubject());
+        outbox.setText(message.getText());
+        outbox.setStatus(Status.PENDING);
+        outbox.setCreatedAt(Instant.now());
+        outbox.setNextAttemptAt(outbox.getCreatedAt());
+        outbox.setExpiresAt(expiresAt);
+        return outbox;
+    }
+
+    public SimpleMailMessage toMailMessage() {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(text);
+        return message;
+    }
+}
@@ -0,0 +1,96 @@
+package com.swissclassic.mindflow_server.account.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+
+/**
+ * Instance-local {@link PasswordResetTokenStore} for a single backend instance.
+ * <p>
+ * Entries use Caffeine's per-entry expiry, which is backed by a hierarchical timer wheel, and a scheduler thread
+ * removes them as soon as they expire, so memory stays flat even if nobody reads the map again.
+ */
+@Component
+@ConditionalOnProperty(name = "password-reset.token-store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryPasswordResetTokenStore implements PasswordResetTokenStore {
+
+    private final Cache<String, Entry> tokens;
+    private final Duration ttl;
+    private final int maxAttempts;
+
+    public InMemoryPasswordResetTokenStore(@Value("${password-reset.ttl:10m}") Duration ttl,
+                                           @Value("${password-reset.max-attempts:5}") int maxAttempts,
+                                           @Value("${password-reset.max-entries:100000}") long maxEntries) {
+        this.ttl = ttl;
+        this.maxAttempts = maxAttempts;
+        this.tokens = Caffeine.newBuilder()
+                              .maximumSize(maxEntries)
+                              .scheduler(Scheduler.systemScheduler())
+                              .expireAfter(new Expiry<String, Entry>() {
+                                  @Override
+                                  public long expireAfterCreate(String key, Entry value, long currentTime) {
+                                      return Math.max(0L, value.expiresAtNanos() - currentTime);
+                                  }
+
+                                  // Counting a failed attempt must not extend the lifetime of the code.
+                                  @Override
+                                  public long expireAfterUpdate(String key, Entry value, long currentTime,
+                                                                long currentDuration) {
+                                      return Math.max(0L, value.expiresAtNanos() - currentTime);
+                                  }
+
+                                  @Override
+                                  public long expireAfterRead(String key, Entry value, long currentTime,
+                                                              long currentDuration) {
+                                      return currentDuration;
+                                  }
+                              })
+                              .build();
+    }
+
+    @Override
+    public void save(String accountId, String token) {
+        tokens.put(accountId, new Entry(token, 0, System.nanoTime() + ttl.toNanos()));
+    }
+
+    @Override
+    public boolean verify(String accountId, String token) {
+        return check(accountId, token, false);
+    }
+
+    @Override
+    public boolean consume(String accountId, String token) {
+        return check(accountId, token, true);
+    }
+
+    private boolean check(String accountId, String token, boolean consume) {
+        boolean[] matched = {false};
+        // Compare and count inside compute so that concurrent guesses are all counted.
+        tokens.asMap()
+              .computeIfPresent(accountId, (key, entry) -> {
+                  if (matches(entry.token(), token)) {
+                      matched[0] = true;
+                      return consume ? null : entry;
+                  }
+                  int attempts = entry.attempts() + 1;
+                  return attempts >= maxAttempts ? null : new Entry(entry.token(), attempts, entry.expiresAtNanos());
+              });
+        return matched[0];
+    }
+
+    private static boolean matches(String expected, String actual) {
+        return actual != null && MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                                                       actual.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record Entry(String token, int attempts, long expiresAtNanos) {
+    }
+}
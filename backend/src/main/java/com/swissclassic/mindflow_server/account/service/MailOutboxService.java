@@ -0,0 +1,245 @@
+package com.swissclassic.mindflow_server.account.service;
+
+import com.swissclassic.mindflow_server.account.model.entity.MailOutboxMessage;
+import com.swissclassic.mindflow_server.account.model.entity.MailOutboxMessage.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent outbound mail queue.
+ * <p>
+ * {@link #enqueue} only inserts the message into {@code mail_outbox} and returns. Workers from the bounded
+ * {@code mailExecutor} pool claim up to {@code mail.outbox.batch-size} due messages at a time (with a lease, so that
+ * several instances can share the queue) and hand them to {@link JavaMailSender#send(SimpleMailMessage...)}, which
+ * delivers the whole batch over a single SMTP connection. Failed messages are retried with exponential backoff and
+ * marked {@link Status#FAILED} after {@code mail.outbox.max-attempts}. Messages claimed by an instance that died are
+ * picked up again once their lease expires, so delivery is at-least-once.
+ * <p>
+ * A message may carry an expiry (see {@link #enqueue(SimpleMailMessage, Duration)}): it is not claimed after that
+ * time, and a retry that would only happen after it drops the message instead. FAILED messages lose their body and
+ * are deleted after {@code mail.outbox.failed-retention}.
+ */
+@Service
+@Slf4j
+public class MailOutboxService {
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final JavaMailSender mailSender;
+    private final TaskExecutor mailExecutor;
+    private final Counter sentCounter;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+    private final Counter expiredCounter;
+
+    @Value("${mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${mail.outbox.workers:2}")
+    private int workers;
+
+    @Value("${mail.outbox.lease:2m}")
+    private Duration lease;
+
+    @Value("${mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.backoff-initial:30s}")
+    private Duration backoffInitial;
+
+    @Value("${mail.outbox.backoff-max:1h}")
+    private Duration backoffMax;
+
+    @Value("${mail.outbox.failed-retention:7d}")
+    private Duration failedRetention;
+
+    public MailOutboxService(MongoTemplate mongoTemplate,
+                             JavaMailSender mailSender,
+                             @Qualifier("mailExecutor") TaskExecutor mailExecutor,
+                             MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.mailSender = mailSender;
+        this.mailExecutor = mailExecutor;
+        this.sentCounter = meterRegistry.counter("mail.outbox", "result", "sent");
+        this.retryCounter = meterRegistry.counter("mail.outbox", "result", "retry");
+        this.failedCounter = meterRegistry.counter("mail.outbox", "result", "failed");
+        this.expiredCounter = meterRegistry.counter("mail.outbox", "result", "expired");
+    }
+
+    /**
+     * Queues the message for delivery and returns without waiting for SMTP.
+     *
+     * @param message the message to send
+     */
+    public void enqueue(SimpleMailMessage message) {
+        mongoTemplate.insert(MailOutboxMessage.pending(message, null));
+        wakeUp();
+    }
+
+    /**
+     * Queues a message that is only useful for a limited time, e.g. one carrying a short-lived code.
+     * The message is dropped instead of sent if it could not be delivered within {@code ttl}.
+     *
+     * @param message the message to send
+     * @param ttl     how long the message stays deliverable
+     */
+    public void enqueue(SimpleMailMessage message, Duration ttl) {
+        mongoTemplate.insert(MailOutboxMessage.pending(message, Instant.now().plus(ttl)));
+        wakeUp();
+    }
+
+    /**
+     * Picks up messages that are due for a retry, were queued while all workers were busy, or were left behind
+     * by another instance.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${mail.outbox.poll-interval:10s}",
+            fixedDelayString = "${mail.outbox.poll-interval:10s}")
+    public void poll() {
+        for (int i = 0; i < workers; i++) {
+            wakeUp();
+        }
+    }
+
+    private void wakeUp() {
+        try {
+            mailExecutor.execute(this::drain);
+        } catch (TaskRejectedException e) {
+            // All workers are busy and will drain this message too; otherwise the next poll picks it up.
+            log.debug("Mail workers busy, leaving message for the next poll");
+        }
+    }
+
+    private void drain() {
+        try {
+            List<MailOutboxMessage> batch;
+            while (!(batch = claimBatch()).isEmpty()) {
+                sendBatch(batch);
+            }
+        } catch (Exception e) {
+            log.error("Mail outbox worker failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private List<MailOutboxMessage> claimBatch() {
+        Instant now = Instant.now();
+        // The TTL monitor only runs about once a minute, so expired messages are also skipped here.
+        Query due = new Query(new Criteria().andOperator(
+                new Criteria().orOperator(
+                        Criteria.where("status").is(Status.PENDING).and("nextAttemptAt").lte(now),
+                        Criteria.where("status").is(Status.SENDING).and("lockedUntil").lt(now)),
+                Criteria.where("expiresAt").not().lte(now)))
+                .with(Sort.by("nextAttemptAt"));
+        Update claim = new Update().set("status", Status.SENDING)
+                                   .set("lockedUntil", now.plus(lease));
+
+        List<MailOutboxMessage> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize) {
+            // One findAndModify per message so that no other worker or instance can claim the same one.
+            MailOutboxMessage claimed = mongoTemplate.findAndModify(due, claim, FindAndModifyOptions.options()
+                                                                                                 .returnNew(true),
+                                                                    MailOutboxMessage.class);
+            if (claimed == null) {
+                break;
+            }
+            batch.add(claimed);
+        }
+        return batch;
+    }
+
+    private void sendBatch(List<MailOutboxMessage> batch) {
+        SimpleMailMessage[] messages = batch.stream()
+                                            .map(MailOutboxMessage::toMailMessage)
+                                            .toArray(SimpleMailMessage[]::new);
+        Map<Object, Exception> failures = Map.of();
+        MailException batchFailure = null;
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            batchFailure = failures.isEmpty() ? e : null;
+        } catch (MailException e) {
+            batchFailure = e;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Exception failure = batchFailure != null ? batchFailure : failures.get(messages[i]);
+            if (failure == null) {
+                markSent(batch.get(i));
+            } else {
+                markFailed(batch.get(i), failure);
+            }
+        }
+    }
+
+    private void markSent(MailOutboxMessage message) {
+        mongoTemplate.remove(Query.query(Criteria.where("id").is(message.getId())), MailOutboxMessage.class);
+        sentCounter.increment();
+    }
+
+    private void markFailed(MailOutboxMessage message, Exception failure) {
+        int attempts = message.getAttempts() + 1;
+        String error = String.valueOf(failure.getMessage());
+        Instant nextAttemptAt = Instant.now().plus(backoff(attempts));
+        if (attempts < maxAttempts && message.getExpiresAt() != null && !nextAttemptAt.isBefore(message.getExpiresAt())) {
+            // The retry would deliver content that is no longer valid (e.g. an expired reset code).
+            mongoTemplate.remove(Query.query(Criteria.where("id").is(message.getId())), MailOutboxMessage.class);
+            expiredCounter.increment();
+            log.warn("Dropping mail {} to {} after {} attempts, it expires before the next retry: {}", message.getId(),
+                     Arrays.toString(message.getTo()), attempts, error);
+            return;
+        }
+        Update update = new Update().set("attempts", attempts)
+                                    .set("lastError", error.length() > MAX_ERROR_LENGTH
+                                            ? error.substring(0, MAX_ERROR_LENGTH) : error)
+                                    .unset("lockedUntil");
+        if (attempts >= maxAttempts) {
+            // Keep the metadata for inspection but not the body, which may hold a secret such as a reset code.
+            update.set("status", Status.FAILED)
+                  .unset("text")
+                  .set("expiresAt", Instant.now().plus(failedRetention));
+            failedCounter.increment();
+            log.error("Giving up on mail {} to {} after {} attempts: {}", message.getId(), Arrays.toString(message.getTo()), attempts,
+                      error);
+        } else {
+            update.set("status", Status.PENDING)
+                  .set("nextAttemptAt", nextAttemptAt);
+            retryCounter.increment();
+            log.warn("Mail {} failed (attempt {}), retrying later: {}", message.getId(), attempts, error);
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(message.getId())), update,
+                                  MailOutboxMessage.class);
+    }
+
+    // backoff-initial * 2^(attempts - 1), capped at backoff-max
+    private Duration backoff(int attempts) {
+        Duration delay = backoffInitial.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+}
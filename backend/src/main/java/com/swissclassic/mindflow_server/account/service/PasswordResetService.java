@@ -5,14 +5,12 @@ import com.swissclassic.mindflow_server.account.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
-import java.util.Map;
+import java.time.Duration;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class PasswordResetService {
@@ -21,10 +19,17 @@ public class PasswordResetService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     @Autowired
-    private JavaMailSender mailSender;
-    private Map<String, String> tokens = new ConcurrentHashMap<>();
+    private MailOutboxService mailOutboxService;
+    @Autowired
+    private TokenVersionService tokenVersionService;
+    @Autowired
+    private RefreshSessionStore refreshSessionStore;
+    @Autowired
+    private PasswordResetTokenStore tokenStore;
     @Value("${mail.sender.address}")
     private String senderAddress;
+    @Value("${password-reset.ttl:10m}")
+    private Duration tokenTtl;
 
     /**
      * Initiates the password reset flow.
@@ -49,8 +54,8 @@ public class PasswordResetService {
         // Generate a random alphanumeric token.
         String token = generateRandomToken();
 
-        // Save the token associated with the accountId.
-        tokens.put(accountId, token);
+        // Save the token associated with the accountId (replaces any previous token).
+        tokenStore.save(accountId, token);
 
         // Send the token by email.
         sendResetTokenEmail(email, token);
@@ -60,13 +65,14 @@ public class PasswordResetService {
 
     /**
      * Verifies if the provided token matches the one stored for the given account.
+     * A wrong token counts as a failed attempt; the token is discarded after too many of them.
      *
      * @param accountId the user’s account identifier
      * @param token     the token to verify
      * @return true if the token is valid, false otherwise.
      */
     public boolean verifyToken(String accountId, String token) {
-        return token.equals(tokens.get(accountId));
+        return tokenStore.verify(accountId, token);
     }
 
     /**
@@ -78,7 +84,8 @@ public class PasswordResetService {
      * @return true if the password was successfully reset, false otherwise.
      */
     public boolean resetPassword(String accountId, String token, String newPassword) {
-        if (!verifyToken(accountId, token)) {
+        // The token is consumed here so that it cannot be used twice.
+        if (!tokenStore.consume(accountId, token)) {
             return false;
         }
         // Retrieve the user.
@@ -92,8 +99,9 @@ public class PasswordResetService {
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
 
-        // Remove the token from the store.
-        tokens.remove(accountId);
+        // Tokens issued with the old password are no longer valid: log every device out.
+        tokenVersionService.revokeAll(user.getId());
+        refreshSessionStore.revokeAll(user.getId());
         return true;
     }
 
@@ -104,13 +112,14 @@ public class PasswordResetService {
         return String.format("%06d", number);  // pads with leading zeros if necessary
     }
 
-    // Sends the token to the user’s email.
+    // Queues the token email; delivery happens in the background (see MailOutboxService).
+    // The mail expires with the token, so a code that is no longer valid is never delivered.
     private void sendResetTokenEmail(String email, String token) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setFrom(senderAddress);
         message.setTo(email);
         message.setSubject("Password Reset Token");
         message.setText("Your password reset token is: " + token);
-        mailSender.send(message);
+        mailOutboxService.enqueue(message, tokenTtl);
     }
 }
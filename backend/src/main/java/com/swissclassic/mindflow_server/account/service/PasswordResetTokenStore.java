@@ -0,0 +1,38 @@
+package com.swissclassic.mindflow_server.account.service;
+
+/**
+ * Storage for password reset codes.
+ * <p>
+ * Each account has at most one active code. Codes expire after a fixed TTL and are discarded after too many
+ * failed verification attempts, so that a 6-digit code cannot be brute-forced. Implementations are selected with
+ * {@code password-reset.token-store} ({@code memory} for a single instance, {@code redis} when running replicas).
+ */
+public interface PasswordResetTokenStore {
+
+    /**
+     * Stores a new code for the account, replacing any previous one and resetting its attempt count.
+     *
+     * @param accountId the user's account identifier
+     * @param token     the reset code
+     */
+    void save(String accountId, String token);
+
+    /**
+     * Checks the code without consuming it. A wrong code counts as a failed attempt.
+     *
+     * @param accountId the user's account identifier
+     * @param token     the code entered by the user
+     * @return true if the code matches the active one
+     */
+    boolean verify(String accountId, String token);
+
+    /**
+     * Checks the code and removes it when it matches, so that it can only be used once.
+     * A wrong code counts as a failed attempt.
+     *
+     * @param accountId the user's account identifier
+     * @param token     the code entered by the user
+     * @return true if the code matched and was consumed
+     */
+    boolean consume(String accountId, String token);
+}
@@ -0,0 +1,80 @@
+package com.swissclassic.mindflow_server.account.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link PasswordResetTokenStore} shared by every backend instance.
+ * <p>
+ * Each code is a Redis hash {@code auth:password-reset:{accountId}} with the code and its failed attempt count.
+ * Redis expires the key after the TTL, and comparison, attempt counting and deletion run in one Lua script
+ * so that concurrent guesses on different instances are all counted.
+ */
+@Component
+@ConditionalOnProperty(name = "password-reset.token-store", havingValue = "redis")
+public class RedisPasswordResetTokenStore implements PasswordResetTokenStore {
+    private static final String KEY_PREFIX = "auth:password-reset:";
+
+    private static final RedisScript<Long> SAVE = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) "
+                    + "redis.call('HSET', KEYS[1], 'token', ARGV[1], 'attempts', 0) "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[2]) "
+                    + "return 1",
+            Long.class);
+
+    // Returns 1 on a match (deleting the key when ARGV[3] is 1), 0 otherwise; ARGV[2] failures delete the key.
+    private static final RedisScript<Long> CHECK = new DefaultRedisScript<>(
+            "local stored = redis.call('HGET', KEYS[1], 'token') "
+                    + "if not stored then return 0 end "
+                    + "if stored == ARGV[1] then "
+                    + "  if ARGV[3] == '1' then redis.call('DEL', KEYS[1]) end "
+                    + "  return 1 "
+                    + "end "
+                    + "local attempts = redis.call('HINCRBY', KEYS[1], 'attempts', 1) "
+                    + "if attempts >= tonumber(ARGV[2]) then redis.call('DEL', KEYS[1]) end "
+                    + "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final int maxAttempts;
+
+    public RedisPasswordResetTokenStore(StringRedisTemplate redisTemplate,
+                                        @Value("${password-reset.ttl:10m}") Duration ttl,
+                                        @Value("${password-reset.max-attempts:5}") int maxAttempts) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public void save(String accountId, String token) {
+        redisTemplate.execute(SAVE, List.of(KEY_PREFIX + accountId), token, String.valueOf(ttl.toMillis()));
+    }
+
+    @Override
+    public boolean verify(String accountId, String token) {
+        return check(accountId, token, false);
+    }
+
+    @Override
+    public boolean consume(String accountId, String token) {
+        return check(accountId, token, true);
+    }
+
+    private boolean check(String accountId, String token, boolean consume) {
+        if (token == null) {
+            return false;
+        }
+        Long result = redisTemplate.execute(CHECK, List.of(KEY_PREFIX + accountId), token,
+                                            String.valueOf(maxAttempts), consume ? "1" : "0");
+        return result != null && result == 1L;
+    }
+}
@@ -0,0 +1,246 @@
+package com.swissclassic.mindflow_server.account.service;
+
+import com.swissclassic.mindflow_server.account.model.dto.RefreshSessionInfo;
+import com.swissclassic.mindflow_server.account.model.entity.User;
+import com.swissclassic.mindflow_server.config.JwtProperties;
+import com.swissclassic.mindflow_server.util.JwtUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Refresh-token sessions, kept in Redis instead of the {@code users.refresh_token} column.
+ * <p>
+ * Every login creates a session (one per device) whose refresh tokens form a rotation chain:
+ * <ul>
+ *   <li>{@code auth:refresh:{sha256(token)}}: the session the token belongs to and whether it was already rotated</li>
+ *   <li>{@code auth:refresh-session:{sessionId}}: user, device and the hash of the session's current token</li>
+ *   <li>{@code auth:refresh-user:{userId}}: set of the user's session ids, for listing and bulk revocation</li>
+ * </ul>
+ * Refreshing is one Lua script call: it marks the presented token as rotated and makes the new token current.
+ * Presenting a token that is no longer current means it was copied, so the whole session is revoked.
+ * All keys expire with the refresh token lifetime, which is extended on every rotation.
+ * <p>
+ * The scripts derive the session and user keys from stored ids, so they assume a single Redis node (as configured).
+ */
+@Service
+@Slf4j
+public class RefreshSessionStore {
+    private static final String TOKEN_PREFIX = "auth:refresh:";
+    private static final String SESSION_PREFIX = "auth:refresh-session:";
+    private static final String USER_PREFIX = "auth:refresh-user:";
+    private static final int MAX_DEVICE_LENGTH = 200;
+
+    // KEYS: token, session, user / ARGV: sessionId, userId, accountId, username, displayName, device, now, ttl, tokenHash
+    private static final RedisScript<Long> CREATE = new DefaultRedisScript<>(
+            "redis.call('HSET', KEYS[1], 'session', ARGV[1], 'state', 'active') "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[8]) "
+                    + "redis.call('HSET', KEYS[2], 'user_id', ARGV[2], 'account_id', ARGV[3], 'username', ARGV[4], "
+                    + "  'display_name', ARGV[5], 'device', ARGV[6], 'created_at', ARGV[7], 'last_used_at', ARGV[7], "
+                    + "  'current', ARGV[9]) "
+                    + "redis.call('PEXPIRE', KEYS[2], ARGV[8]) "
+                    + "redis.call('SADD', KEYS[3], ARGV[1]) "
+                    + "redis.call('PEXPIRE', KEYS[3], ARGV[8]) "
+                    + "return 1",
+            Long.class);
+
+    // KEYS: presented token, new token / ARGV: presented hash, new hash, now, ttl, session prefix, user prefix
+    // -> {'ROTATED', sessionId, userId, accountId, username, displayName} | {'REUSED', sessionId, userId} | {'INVALID'}
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ROTATE = new DefaultRedisScript<>(
+            "local token = redis.call('HMGET', KEYS[1], 'session', 'state') "
+                    + "if not token[1] then return {'INVALID'} end "
+                    + "local sessionKey = ARGV[5] .. token[1] "
+                    + "local session = redis.call('HMGET', sessionKey, 'current', 'user_id') "
+                    + "if not session[1] then return {'INVALID'} end "
+                    + "if token[2] ~= 'active' or session[1] ~= ARGV[1] then "
+                    + "  redis.call('DEL', sessionKey) "
+                    + "  redis.call('SREM', ARGV[6] .. session[2], token[1]) "
+                    + "  return {'REUSED', token[1], session[2]} "
+                    + "end "
+                    + "redis.call('HSET', KEYS[1], 'state', 'rotated') "
+                    + "redis.call('HSET', KEYS[2], 'session', token[1], 'state', 'active') "
+                    + "redis.call('PEXPIRE', KEYS[2], ARGV[4]) "
+                    + "redis.call('HSET', sessionKey, 'current', ARGV[2], 'last_used_at', ARGV[3]) "
+                    + "redis.call('PEXPIRE', sessionKey, ARGV[4]) "
+                    + "redis.call('PEXPIRE', ARGV[6] .. session[2], ARGV[4]) "
+                    + "local user = redis.call('HMGET', sessionKey, 'user_id', 'account_id', 'username', 'display_name') "
+                    + "return {'ROTATED', token[1], user[1], user[2], user[3], user[4]}",
+            List.class);
+
+    // KEYS: user / ARGV: session prefix
+    private static final RedisScript<Long> REVOKE_ALL = new DefaultRedisScript<>(
+            "local ids = redis.call('SMEMBERS', KEYS[1]) "
+                    + "for _, id in ipairs(ids) do redis.call('DEL', ARGV[1] .. id) end "
+                    + "redis.call('DEL', KEYS[1]) "
+                    + "return #ids",
+            Long.class);
+
+    public enum Result {
+        ROTATED, INVALID, REUSED
+    }
+
+    /**
+     * Outcome of {@link #rotate}. On {@link Result#ROTATED} {@code user} holds the fields needed to issue an access
+     * token (id, accountId, username, displayName) without loading the user.
+     */
+    public record Rotation(Result result, String sessionId, User user) {
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final JwtUtils jwtUtils;
+    private final JwtProperties jwtProperties;
+
+    public RefreshSessionStore(StringRedisTemplate redisTemplate, JwtUtils jwtUtils, JwtProperties jwtProperties) {
+        this.redisTemplate = redisTemplate;
+        this.jwtUtils = jwtUtils;
+        this.jwtProperties = jwtProperties;
+    }
+
+    /**
+     * Starts a new session for the user and returns its first refresh token.
+     *
+     * @param user   the authenticated user
+     * @param device a description of the client, e.g. its User-Agent (may be null)
+     * @return the refresh token
+     */
+    public String create(User user, String device) {
+        String sessionId = UUID.randomUUID()
+                               .toString();
+        String refreshToken = jwtUtils.generateRefreshToken(user.getId()
+                                                                .toString());
+        String tokenHash = JwtUtils.sha256(refreshToken);
+        redisTemplate.execute(CREATE,
+                              List.of(TOKEN_PREFIX + tokenHash, SESSION_PREFIX + sessionId, USER_PREFIX + user.getId()),
+                              sessionId, user.getId()
+                                             .toString(), nullToEmpty(user.getAccountId()),
+                              nullToEmpty(user.getUsername()), nullToEmpty(user.getDisplayName()), truncate(device),
+                              String.valueOf(System.currentTimeMillis()), ttlMillis(), tokenHash);
+        return refreshToken;
+    }
+
+    /**
+     * Exchanges a refresh token for the next one in its session.
+     *
+     * @param presentedToken the refresh token sent by the client (signature and expiry already verified)
+     * @param nextToken      the refresh token that replaces it
+     * @return the rotation result
+     */
+    @SuppressWarnings("unchecked")
+    public Rotation rotate(String presentedToken, String nextToken) {
+        List<Object> result = redisTemplate.execute(ROTATE,
+                                                    List.of(TOKEN_PREFIX + JwtUtils.sha256(presentedToken),
+                                                            TOKEN_PREFIX + JwtUtils.sha256(nextToken)),
+                                                    JwtUtils.sha256(presentedToken), JwtUtils.sha256(nextToken),
+                                                    String.valueOf(System.currentTimeMillis()), ttlMillis(),
+                                                    SESSION_PREFIX, USER_PREFIX);
+        if (result == null || result.isEmpty()) {
+            return new Rotation(Result.INVALID, null, null);
+        }
+        Result outcome = Result.valueOf(String.valueOf(result.get(0)));
+        if (outcome == Result.REUSED) {
+            log.warn("Refresh token reuse detected, revoked session {} of user {}", result.get(1), result.get(2));
+            return new Rotation(Result.REUSED, String.valueOf(result.get(1)), null);
+        }
+        if (outcome != Result.ROTATED) {
+            return new Rotation(Result.INVALID, null, null);
+        }
+        User user = new User();
+        user.setId(Long.valueOf(String.valueOf(result.get(2))));
+        user.setAccountId(String.valueOf(result.get(3)));
+        user.setUsername(String.valueOf(result.get(4)));
+        user.setDisplayName(String.valueOf(result.get(5)));
+        return new Rotation(Result.ROTATED, String.valueOf(result.get(1)), user);
+    }
+
+    /**
+     * Lists the user's active sessions (one per logged-in device).
+     *
+     * @param userId the user id
+     * @return the sessions, without any token material
+     */
+    public List<RefreshSessionInfo> findSessions(Long userId) {
+        Set<String> sessionIds = redisTemplate.opsForSet()
+                                              .members(USER_PREFIX + userId);
+        List<RefreshSessionInfo> sessions = new ArrayList<>();
+        if (sessionIds == null) {
+            return sessions;
+        }
+        for (String sessionId : sessionIds) {
+            List<Object> fields = redisTemplate.opsForHash()
+                                               .multiGet(SESSION_PREFIX + sessionId,
+                                                         List.of("device", "created_at", "last_used_at"));
+            if (fields.get(1) == null) {
+                // Session expired on its own; drop the stale id.
+                redisTemplate.opsForSet()
+                             .remove(USER_PREFIX + userId, sessionId);
+                continue;
+            }
+            sessions.add(new RefreshSessionInfo(sessionId, (String) fields.get(0),
+                                                Long.parseLong((String) fields.get(1)),
+                                                Long.parseLong((String) fields.get(2))));
+        }
+        return sessions;
+    }
+
+    /**
+     * Revokes one session (logs one device out).
+     *
+     * @param userId    the owner of the session
+     * @param sessionId the session id
+     * @return true if the session existed
+     */
+    public boolean revoke(Long userId, String sessionId) {
+        Long removed = redisTemplate.opsForSet()
+                                    .remove(USER_PREFIX + userId, sessionId);
+        if (removed == null || removed == 0) {
+            return false;
+        }
+        redisTemplate.delete(SESSION_PREFIX + sessionId);
+        return true;
+    }
+
+    /**
+     * Revokes the session a refresh token belongs to (logs that device out).
+     *
+     * @param userId       the authenticated user; sessions of other users are left alone
+     * @param refreshToken the refresh token presented by the device
+     * @return true if a session of the user was revoked
+     */
+    public boolean revokeByToken(Long userId, String refreshToken) {
+        Object sessionId = redisTemplate.opsForHash()
+                                        .get(TOKEN_PREFIX + JwtUtils.sha256(refreshToken), "session");
+        return sessionId != null && revoke(userId, (String) sessionId);
+    }
+
+    /**
+     * Revokes every session of the user, e.g. after a password reset or account deletion.
+     *
+     * @param userId the user id
+     */
+    public void revokeAll(Long userId) {
+        redisTemplate.execute(REVOKE_ALL, List.of(USER_PREFIX + userId), SESSION_PREFIX);
+    }
+
+    private String ttlMillis() {
+        return String.valueOf(jwtProperties.getRefreshExpirationMs());
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String truncate(String device) {
+        if (device == null) {
+            return "";
+        }
+        return device.length() > MAX_DEVICE_LENGTH ? device.substring(0, MAX_DEVICE_LENGTH) : device;
+    }
+}
@@ -0,0 +1,92 @@
+package com.swissclassic.mindflow_server.account.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Per-user access token version used to revoke stateless JWTs.
+ * <p>
+ * Every access token carries the version that was current when it was issued ({@code ver} claim).
+ * Bumping the counter (logout, password change, account delete) makes all older tokens fail the check
+ * without touching the users table. The counter lives in Redis so that every replica sees the bump,
+ * and is cached locally for a few seconds so that the check is not a network round-trip per request.
+ * <p>
+ * If Redis cannot be read, the last version seen for the user is used instead, so revoked tokens stay revoked.
+ * When no version is known at all the lookup fails and the token is rejected (fail closed).
+ */
+@Service
+@Slf4j
+public class TokenVersionService {
+    private static final String KEY_PREFIX = "auth:token-version:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<Long, Long> versions;
+    // Last version read from Redis, used only while Redis is unavailable.
+    private final Cache<Long, Long> lastKnown;
+
+    public TokenVersionService(StringRedisTemplate redisTemplate,
+                               @Value("${jwt.token-version.cache-size:10000}") long cacheSize,
+                               @Value("${jwt.token-version.cache-ttl:5s}") Duration cacheTtl,
+                               @Value("${jwt.token-version.last-known-ttl:1d}") Duration lastKnownTtl) {
+        this.redisTemplate = redisTemplate;
+        this.versions = Caffeine.newBuilder()
+                                .maximumSize(cacheSize)
+                                .expireAfterWrite(cacheTtl)
+                                .build();
+        this.lastKnown = Caffeine.newBuilder()
+                                 .maximumSize(cacheSize)
+                                 .expireAfterWrite(lastKnownTtl)
+                                 .build();
+    }
+
+    /**
+     * Returns the current token version of the user, {@code 0} if it was never bumped.
+     *
+     * @param userId the user id
+     * @return the current version
+     * @throws IllegalStateException if Redis is unavailable and no version of the user is known
+     */
+    public long currentVersion(Long userId) {
+        return versions.get(userId, this::readVersion);
+    }
+
+    /**
+     * Invalidates every access token issued to the user so far.
+     *
+     * @param userId the user id
+     * @return the new version, to be embedded in tokens issued from now on
+     */
+    public long revokeAll(Long userId) {
+        Long version = redisTemplate.opsForValue()
+                                    .increment(KEY_PREFIX + userId);
+        long current = version == null ? 0L : version;
+        versions.put(userId, current);
+        lastKnown.put(userId, current);
+        return current;
+    }
+
+    private long readVersion(Long userId) {
+        try {
+            String value = redisTemplate.opsForValue()
+                                        .get(KEY_PREFIX + userId);
+            long version = value == null ? 0L : Long.parseLong(value);
+            lastKnown.put(userId, version);
+            return version;
+        } catch (Exception e) {
+            Long known = lastKnown.getIfPresent(userId);
+            if (known != null) {
+                log.warn("Failed to read token version for user {}, using last known version {}: {}", userId, known,
+                         e.getMessage());
+                return known;
+            }
+            // Falling back to 0 would accept tokens that were revoked, so reject instead.
+            throw new IllegalStateException("Token version of user " + userId + " is unavailable", e);
+        }
+    }
+}
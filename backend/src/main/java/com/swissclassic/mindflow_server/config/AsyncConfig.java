@@ -0,0 +1,47 @@
+package com.swissclassic.mindflow_server.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for long-running background jobs that must not run on request threads.
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Runs batched mindmap deletions; kept small so deletes do not compete with interactive Neo4j traffic.
+     */
+    @Bean(name = "mindmapJobExecutor")
+    public ThreadPoolTaskExecutor mindmapJobExecutor(
+            @Value("${mindmap.jobs.pool-size:2}") int poolSize,
+            @Value("${mindmap.jobs.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mindmap-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(false); // 중단된 작업은 재시작 시 이어서 진행
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Delivers queued mail (see {@code MailOutboxService}); each task drains the outbox, so a short queue is enough.
+     */
+    @Bean(name = "mailExecutor")
+    public ThreadPoolTaskExecutor mailExecutor(
+            @Value("${mail.outbox.workers:2}") int workers,
+            @Value("${mail.outbox.queue-capacity:4}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mail-outbox-");
+        executor.setWaitForTasksToCompleteOnShutdown(false); // 보내는 중이던 메일은 lease 만료 후 다시 발송
+        executor.initialize();
+        return executor;
+    }
+}
@@ -13,14 +13,17 @@ import java.util.List;
 @Slf4j
 public class CorsConfig {
 
+    // WebSocketConfig 의 STOMP 엔드포인트도 같은 origin 목록 사용
+    static final List<String> ALLOWED_ORIGINS = List.of("http://localhost:5173", "http://localhost:5174", "http://localhost",
+                                                        "http://i12d203.p.REDACTED.io", "https://mindflow.ddns.net",
+                                                        "http://localhost:8453"
+    );
+
     @Bean
     public CorsFilter corsFilter() {
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         CorsConfiguration config = new CorsConfiguration();
-        List<String> allowedOrigins = List.of("http://localhost:5173", "http://localhost:5174", "http://localhost",
-                                              "http://i12d203.p.REDACTED.io", "https://mindflow.ddns.net",
-                                              "http://localhost:8453"
-        );
+        List<String> allowedOrigins = ALLOWED_ORIGINS;
         log.error("CorsFilter" + allowedOrigins.toString());
         config.setAllowedOrigins(allowedOrigins);
         // 허용할 origin 설정 (React 앱 주소)
@@ -1,8 +1,5 @@
 package com.swissclassic.mindflow_server.config;
 
-import com.auth0.jwt.interfaces.DecodedJWT;
-import com.swissclassic.mindflow_server.account.service.CustomUserDetailsService;
-import com.swissclassic.mindflow_server.util.JwtUtils;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,7 +8,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -27,10 +23,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Autowired
-    private JwtUtils jwtUtils;
-
-    @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private JwtAuthenticator jwtAuthenticator;
 
     /**
      * Filters each incoming request to check for a valid JWT token.
@@ -56,31 +49,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = parseJwt(request);
             log.debug("doFilterInternal: 1. JWT token: " + jwt);  // Check if token exists
             if (jwt != null) {
-                // Validate the token
-                DecodedJWT decodedJWT = jwtUtils.validateJwtToken(jwt);
-                String accountId = decodedJWT.getSubject();
-                log.debug("doFilterInternal: 2. Decoded accountId: " + accountId);  // Check subject
-
-
-                // Load user details from the database
-                UserDetails userDetails = userDetailsService.loadUserByUsername(accountId);
-                log.debug("doFilterInternal: 3. Loaded userDetails username: " + userDetails.getUsername());  // Check loaded user
-
-                // Create authentication token
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
-                log.debug("doFilterInternal: 4. Created authentication token");  // Check authentication creation
+                // Validate the token and build the principal (from the claims, or from the database for legacy tokens)
+                UsernamePasswordAuthenticationToken authentication = jwtAuthenticator.authenticate(jwt);
+                log.debug("doFilterInternal: 2. Authenticated user: " + authentication.getName());  // Check authentication creation
 
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 // Set the authentication in the security context
                 SecurityContextHolder.getContext()
                                      .setAuthentication(authentication);
-                log.debug("doFilterInternal: 5. Set authentication in SecurityContext");  // Check security context
+                log.debug("doFilterInternal: 3. Set authentication in SecurityContext");  // Check security context
 
             }
         } catch (Exception e) {
@@ -0,0 +1,102 @@
+package com.swissclassic.mindflow_server.config;
+
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.swissclassic.mindflow_server.account.model.entity.User;
+import com.swissclassic.mindflow_server.account.service.CustomUserDetailsService;
+import com.swissclassic.mindflow_server.account.service.TokenVersionService;
+import com.swissclassic.mindflow_server.util.JwtUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Turns a bearer token into an {@link UsernamePasswordAuthenticationToken}.
+ * <p>
+ * In stateless mode ({@code jwt.stateless.enabled}, on by default) the principal is built from the signed claims of the token
+ * ({@code uid}, {@code sub}, {@code name}, {@code roles}) instead of loading the user from MySQL; repeated requests
+ * with the same token skip the signature check through the verified-token cache of {@link JwtUtils}.
+ * Revocation is checked on every request against the user's token version ({@code ver} claim).
+ * Tokens issued before the claims existed, or any token when stateless mode is off, fall back to the user lookup.
+ */
+@Component
+@Slf4j
+public class JwtAuthenticator {
+
+    private final JwtUtils jwtUtils;
+    private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionService tokenVersionService;
+    private final boolean stateless;
+
+    public JwtAuthenticator(JwtUtils jwtUtils,
+                            CustomUserDetailsService userDetailsService,
+                            TokenVersionService tokenVersionService,
+                            @Value("${jwt.stateless.enabled:true}") boolean stateless) {
+        this.jwtUtils = jwtUtils;
+        this.userDetailsService = userDetailsService;
+        this.tokenVersionService = tokenVersionService;
+        this.stateless = stateless;
+    }
+
+    /**
+     * Authenticates the given access token.
+     *
+     * @param token the raw JWT without the {@code Bearer } prefix
+     * @return the authentication to put in the security context
+     * @throws Exception if the token is invalid, expired or revoked
+     */
+    public UsernamePasswordAuthenticationToken authenticate(String token) throws Exception {
+        if (!stateless) {
+            return loadFromDatabase(jwtUtils.validateJwtToken(token));
+        }
+
+        DecodedJWT decodedJWT = jwtUtils.validateJwtToken(token);
+        if (decodedJWT.getClaim(JwtUtils.CLAIM_USER_ID).isNull()) {
+            // claim 이 없는 이전 토큰은 기존처럼 DB 조회
+            return loadFromDatabase(decodedJWT);
+        }
+        VerifiedToken verified = VerifiedToken.from(decodedJWT);
+        if (verified.version() < tokenVersionService.currentVersion(verified.principal().getId())) {
+            throw new Exception("Revoked JWT token");
+        }
+        return new UsernamePasswordAuthenticationToken(verified.principal(), null, verified.authorities());
+    }
+
+    private UsernamePasswordAuthenticationToken loadFromDatabase(DecodedJWT decodedJWT) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(decodedJWT.getSubject());
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    /**
+     * Claims of a token whose signature and expiry have already been checked.
+     */
+    private record VerifiedToken(User principal, List<GrantedAuthority> authorities, long version) {
+
+        static VerifiedToken from(DecodedJWT decodedJWT) {
+            // 요청마다 DB 에서 읽던 User 대신 토큰에 서명된 값만 채운 User (id, accountId, username)
+            User user = new User();
+            user.setId(decodedJWT.getClaim(JwtUtils.CLAIM_USER_ID).asLong());
+            user.setAccountId(decodedJWT.getSubject());
+            user.setUsername(decodedJWT.getClaim(JwtUtils.CLAIM_USERNAME).asString());
+
+            Claim rolesClaim = decodedJWT.getClaim(JwtUtils.CLAIM_ROLES);
+            List<GrantedAuthority> authorities = rolesClaim.isNull()
+                    ? Collections.emptyList()
+                    : rolesClaim.asList(String.class)
+                                .stream()
+                                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                                .toList();
+
+            Claim versionClaim = decodedJWT.getClaim(JwtUtils.CLAIM_TOKEN_VERSION);
+            long version = versionClaim.isNull() ? 0L : versionClaim.asLong();
+            return new VerifiedToken(user, authorities, version);
+        }
+    }
+}
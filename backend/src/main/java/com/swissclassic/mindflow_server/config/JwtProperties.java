@@ -6,6 +6,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.Map;
+
 /**
  * Configuration properties for JWT.
  */
@@ -27,4 +30,28 @@ public class JwtProperties {
     private long expirationMs;
     @Value("${jwt.refresh.expiration}")
     private long refreshExpirationMs;
+
+    /**
+     * Key id ({@code kid} header) of {@link #secret}; new tokens are signed with this key.
+     */
+    @Value("${jwt.key-id:default}")
+    private String keyId;
+
+    /**
+     * Retired signing keys by key id, still accepted for verification until their tokens expire.
+     */
+    @Value("#{${jwt.previous-keys:{:}}}")
+    private Map<String, String> previousKeys;
+
+    /**
+     * Maximum number of verified tokens kept in memory.
+     */
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    /**
+     * Upper bound on how long a verified token stays cached (it is always evicted at its {@code exp}).
+     */
+    @Value("${jwt.verified-cache.max-ttl:5m}")
+    private Duration verifiedCacheMaxTtl;
 }
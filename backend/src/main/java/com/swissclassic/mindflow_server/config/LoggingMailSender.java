@@ -0,0 +1,125 @@
+package com.swissclassic.mindflow_server.config;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Stand-in {@link JavaMailSender} for local runs and tests ({@code mail.outbox.sender=logging}).
+ * <p>
+ * Nothing is sent over SMTP: messages are logged and the most recent ones are kept in memory so that tests can
+ * assert on them. Because this bean exists, Spring Boot's SMTP sender auto-configuration backs off.
+ */
+@Component
+@ConditionalOnProperty(name = "mail.outbox.sender", havingValue = "logging")
+@Slf4j
+public class LoggingMailSender implements JavaMailSender {
+
+    private final Session session = Session.getInstance(new Properties());
+    private final Deque<Object> sentMessages = new ArrayDeque<>();
+    private final int capacity;
+
+    public LoggingMailSender(@Value("${mail.outbox.logging.capacity:100}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the most recently sent messages, oldest first ({@link SimpleMailMessage} or {@link MimeMessage}).
+     *
+     * @return a snapshot of the sent messages
+     */
+    public synchronized List<Object> getSentMessages() {
+        return List.copyOf(sentMessages);
+    }
+
+    public synchronized void clear() {
+        sentMessages.clear();
+    }
+
+    @Override
+    public MimeMessage createMimeMessage() {
+        return new MimeMessage(session);
+    }
+
+    @Override
+    public MimeMessage createMimeMessage(InputStream contentStream) {
+        try {
+            return new MimeMessage(session, contentStream);
+        } catch (MessagingException e) {
+            throw new MailParseException("Could not parse raw MIME content", e);
+        }
+    }
+
+    @Override
+    public void send(SimpleMailMessage simpleMessage) {
+        send(new SimpleMailMessage[]{simpleMessage});
+    }
+
+    @Override
+    public void send(SimpleMailMessage... simpleMessages) {
+        for (SimpleMailMessage message : simpleMessages) {
+            log.info("[mail] to={} subject={}\n{}", Arrays.toString(message.getTo()), message.getSubject(),
+                     message.getText());
+            record(message);
+        }
+    }
+
+    @Override
+    public void send(MimeMessage mimeMessage) {
+        send(new MimeMessage[]{mimeMessage});
+    }
+
+    @Override
+    public void send(MimeMessage... mimeMessages) {
+        for (MimeMessage message : mimeMessages) {
+            try {
+                log.info("[mail] to={} subject={}", Arrays.toString(message.getAllRecipients()), message.getSubject());
+            } catch (MessagingException e) {
+                log.info("[mail] (unreadable headers: {})", e.getMessage());
+            }
+            record(message);
+        }
+    }
+
+    @Override
+    public void send(MimeMessagePreparator mimeMessagePreparator) {
+        send(new MimeMessagePreparator[]{mimeMessagePreparator});
+    }
+
+    @Override
+    public void send(MimeMessagePreparator... mimeMessagePreparators) {
+        MimeMessage[] messages = new MimeMessage[mimeMessagePreparators.length];
+        for (int i = 0; i < mimeMessagePreparators.length; i++) {
+            messages[i] = createMimeMessage();
+            try {
+                mimeMessagePreparators[i].prepare(messages[i]);
+            } catch (Exception e) {
+                throw new MailPreparationException(e);
+            }
+        }
+        send(messages);
+    }
+
+    private synchronized void record(Object message) {
+        if (sentMessages.size() >= capacity) {
+            sentMessages.removeFirst();
+        }
+        sentMessages.addLast(message);
+    }
+}
@@ -10,11 +10,13 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
 
 import javax.annotation.PostConstruct;
 
 @Configuration
 @EnableMongoRepositories(basePackages = "com.swissclassic.mindflow_server.conversation.repository")
+@EnableReactiveMongoRepositories(basePackages = "com.swissclassic.mindflow_server.conversation.repository")
 @Slf4j
 public class MongoConfig {
 
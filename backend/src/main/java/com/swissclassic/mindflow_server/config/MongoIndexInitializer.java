@@ -0,0 +1,89 @@
+package com.swissclassic.mindflow_server.config;
+
+import com.swissclassic.mindflow_server.account.model.entity.MailOutboxMessage;
+import com.swissclassic.mindflow_server.conversation.model.entity.ChatLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Ensures the MongoDB indexes the chat-log and mail outbox queries rely on exist at startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexInitializer {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        IndexOperations chatLogIndexes = mongoTemplate.indexOps(ChatLog.class);
+        try {
+            // 채팅방 기록 커서 페이지네이션 (chat_room_id, created_at, _id)
+            chatLogIndexes.ensureIndex(new Index()
+                    .on("chat_room_id", Sort.Direction.ASC)
+                    .on("created_at", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)
+                    .named("chat_room_created_at_id"));
+
+            // 마인드맵 노드 mongo_ref -> 원본 문장 조회용 멀티키 인덱스
+            chatLogIndexes.ensureIndex(new Index()
+                    .on("answer_sentences.sentenceId", Sort.Direction.ASC)
+                    .named("answer_sentence_id"));
+
+            // 검색용 텍스트 인덱스: user_id 를 앞 키로 두어 사용자 범위 안에서만 조회
+            // 한국어 형태소 분석기가 없으므로 default_language none (어간 추출/불용어 없이 단어 단위)
+            chatLogIndexes.ensureIndex(new IndexDefinition() {
+                @Override
+                public Document getIndexKeys() {
+                    return new Document("user_id", 1)
+                            .append("question", "text")
+                            .append("answer_sentences.content", "text");
+                }
+
+                @Override
+                public Document getIndexOptions() {
+                    return new Document("name", "chat_log_text")
+                            .append("default_language", "none")
+                            .append("weights", new Document("question", 2)
+                                    .append("answer_sentences.content", 1));
+                }
+            });
+            log.info("chat_logs 인덱스 확인 완료");
+        } catch (Exception e) {
+            log.error("chat_logs 인덱스 생성 실패", e);
+        }
+
+        try {
+            // 메일 발송 대기열: 보낼 차례가 된 메일, lease 가 끝난 발송 중 메일 조회
+            IndexOperations outboxIndexes = mongoTemplate.indexOps(MailOutboxMessage.class);
+            outboxIndexes.ensureIndex(new Index()
+                    .on("status", Sort.Direction.ASC)
+                    .on("next_attempt_at", Sort.Direction.ASC)
+                    .named("status_next_attempt_at"));
+            outboxIndexes.ensureIndex(new Index()
+                    .on("status", Sort.Direction.ASC)
+                    .on("locked_until", Sort.Direction.ASC)
+                    .named("status_locked_until"));
+            // expires_at 이 지난 메일(만료된 재설정 코드, 보관 기간이 끝난 FAILED)은 자동 삭제
+            outboxIndexes.ensureIndex(new Index()
+                    .on("expires_at", Sort.Direction.ASC)
+                    .expire(Duration.ZERO)
+                    .named("expires_at_ttl"));
+            log.info("mail_outbox 인덱스 확인 완료");
+        } catch (Exception e) {
+            log.error("mail_outbox 인덱스 생성 실패", e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.swissclassic.mindflow_server.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates and verifies the Neo4j indexes and constraints used by the mindmap queries.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class Neo4jSchemaInitializer {
+
+    // TopicRepository 의 조회/삭제 조건과 Flask 의 구조 조회 조건에 맞춘 인덱스
+    private static final List<String> INDEXES = List.of(
+            "CREATE INDEX topic_creator_chat_room IF NOT EXISTS FOR (t:Topic) ON (t.creator_id, t.chat_room_id)",
+            "CREATE INDEX topic_creator IF NOT EXISTS FOR (t:Topic) ON (t.creator_id)",
+            "CREATE INDEX topic_chat_room IF NOT EXISTS FOR (t:Topic) ON (t.chat_room_id)",
+            "CREATE INDEX topic_mongo_ref IF NOT EXISTS FOR (t:Topic) ON (t.mongo_ref)",
+            // 마인드맵 변경분(delta) 조회와 삭제 기록 정리
+            "CREATE INDEX topic_creator_created_at IF NOT EXISTS FOR (t:Topic) ON (t.creator_id, t.created_at)",
+            "CREATE INDEX topic_creator_updated_at IF NOT EXISTS FOR (t:Topic) ON (t.creator_id, t.updated_at)",
+            "CREATE INDEX topic_tombstone_creator_deleted_at IF NOT EXISTS FOR (t:TopicTombstone) ON (t.creator_id, t.deleted_at)",
+            "CREATE INDEX topic_tombstone_deleted_at IF NOT EXISTS FOR (t:TopicTombstone) ON (t.deleted_at)",
+            // 나눠서 삭제하는 작업 (TopicDeleteJobService)
+            "CREATE INDEX topic_pending_delete_job IF NOT EXISTS FOR (t:TopicPendingDelete) ON (t.delete_job_id)",
+            "CREATE CONSTRAINT topic_delete_job_id_unique IF NOT EXISTS FOR (j:TopicDeleteJob) REQUIRE j.job_id IS UNIQUE",
+            "CREATE CONSTRAINT topic_separation_job_id_unique IF NOT EXISTS FOR (j:TopicSeparationJob) REQUIRE j.job_id IS UNIQUE");
+
+    // 기존 노드에 topic_id 가 없으면 제약 조건 생성 전에 채워 넣음 (자동 커밋 세션에서 배치 단위로)
+    private static final String BACKFILL_TOPIC_ID = """
+            MATCH (t:Topic) WHERE t.topic_id IS NULL
+            CALL { WITH t SET t.topic_id = randomUUID() } IN TRANSACTIONS OF 1000 ROWS
+            """;
+
+    private static final String TOPIC_ID_CONSTRAINT =
+            "CREATE CONSTRAINT topic_id_unique IF NOT EXISTS FOR (t:Topic) REQUIRE t.topic_id IS UNIQUE";
+
+    private final Driver driver;
+
+    @Value("${spring.neo4j.database:mindmap}")
+    private String database;
+
+    @Value("${neo4j.schema.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Seconds to wait for index population at startup; 0 only reports the current state.
+     */
+    @Value("${neo4j.schema.await-seconds:0}")
+    private int awaitSeconds;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureSchema() {
+        if (!enabled) {
+            return;
+        }
+        try (Session session = driver.session(SessionConfig.forDatabase(database))) {
+            INDEXES.forEach(statement -> session.run(statement).consume());
+
+            long backfilled = session.run(BACKFILL_TOPIC_ID).consume().counters().propertiesSet();
+            if (backfilled > 0) {
+                log.info("topic_id 가 없는 Topic 노드 {}개에 topic_id 부여", backfilled);
+            }
+            session.run(TOPIC_ID_CONSTRAINT).consume();
+
+            if (awaitSeconds > 0) {
+                session.run("CALL db.awaitIndexes($timeout)", Map.of("timeout", awaitSeconds)).consume();
+            }
+            reportIndexes(session);
+        } catch (Exception e) {
+            log.error("Neo4j 스키마(인덱스/제약 조건) 생성 실패", e);
+        }
+    }
+
+    private void reportIndexes(Session session) {
+        List<Record> indexes = session.run("""
+                SHOW INDEXES YIELD name, type, state, populationPercent, labelsOrTypes, properties
+                WHERE any(label IN labelsOrTypes WHERE label IN ['Topic', 'TopicTombstone', 'TopicPendingDelete', 'TopicDeleteJob', 'TopicSeparationJob'])
+                RETURN name, type, state, populationPercent, properties
+                """).list();
+        for (Record index : indexes) {
+            String state = index.get("state").asString();
+            String message = "Neo4j 인덱스 {} ({} {}) 상태: {} {}%";
+            Object[] args = {
+                    index.get("name").asString(),
+                    index.get("type").asString(),
+                    index.get("properties").asList(),
+                    state,
+                    index.get("populationPercent").asDouble()
+            };
+            if ("ONLINE".equals(state)) {
+                log.info(message, args);
+            } else {
+                log.warn(message, args);
+            }
+        }
+    }
+}
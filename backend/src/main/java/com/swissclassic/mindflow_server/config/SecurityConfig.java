@@ -58,6 +58,12 @@ public class SecurityConfig {
                         .permitAll()
                         .requestMatchers(HttpMethod.POST, "/**")
                         .permitAll()
+                        // 헬스체크는 인증 없이 허용 (metrics 는 인증 필요)
+                        .requestMatchers("/actuator/health/**")
+                        .permitAll()
+                        // WebSocket 핸드셰이크는 허용하고, 인증은 STOMP CONNECT 헤더로 (StompAuthChannelInterceptor)
+                        .requestMatchers("/ws/**")
+                        .permitAll()
                         // 나머지는 인증 필요
                         .anyRequest()
                         .authenticated())
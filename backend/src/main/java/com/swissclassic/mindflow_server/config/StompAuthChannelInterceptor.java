@@ -0,0 +1,77 @@
+package com.swissclassic.mindflow_server.config;
+
+import com.swissclassic.mindflow_server.account.model.entity.User;
+import com.swissclassic.mindflow_server.mindmap.service.MindMapEventRelay;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.security.Principal;
+
+/**
+ * Authenticates STOMP sessions from the {@code Authorization} header of the CONNECT frame and
+ * only lets a user subscribe to their own mindmap destinations.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private final JwtAuthenticator jwtAuthenticator;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            authorizeSubscription(accessor.getUser(), accessor.getDestination());
+        } else if (StompCommand.SEND.equals(accessor.getCommand())
+                && accessor.getDestination() != null && accessor.getDestination().startsWith("/topic/")) {
+            // 브로커 경로로 직접 보내서 다른 구독자에게 가짜 이벤트를 뿌리는 것 방지
+            throw new MessageDeliveryException("Clients cannot send to broker destinations");
+        }
+        return message;
+    }
+
+    private Principal authenticate(String header) {
+        if (!StringUtils.hasText(header) || !header.startsWith("Bearer ")) {
+            throw new MessageDeliveryException("Missing bearer token");
+        }
+        try {
+            return jwtAuthenticator.authenticate(header.substring(7));
+        } catch (Exception e) {
+            log.debug("STOMP CONNECT rejected: {}", e.getMessage());
+            throw new MessageDeliveryException("Invalid JWT token");
+        }
+    }
+
+    /**
+     * Mindmap destinations look like {@code /topic/mindmap/{userId}[/{chatRoomId}]}; the user id must be the caller's.
+     */
+    private void authorizeSubscription(Principal principal, String destination) {
+        if (destination == null || !destination.startsWith(MindMapEventRelay.DESTINATION_PREFIX)) {
+            return;
+        }
+        if (!(principal instanceof UsernamePasswordAuthenticationToken authentication)
+                || !(authentication.getPrincipal() instanceof User user)) {
+            throw new MessageDeliveryException("Unauthenticated subscription to " + destination);
+        }
+        String userId = destination.substring(MindMapEventRelay.DESTINATION_PREFIX.length()).split("/", 2)[0];
+        if (!String.valueOf(user.getId()).equals(userId)) {
+            throw new MessageDeliveryException("Subscription to another user's mindmap is not allowed");
+        }
+    }
+}
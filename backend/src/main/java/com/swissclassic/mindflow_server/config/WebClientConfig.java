@@ -1,21 +1,63 @@
 package com.swissclassic.mindflow_server.config;
 
+import io.netty.channel.ChannelOption;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebClientConfig {
 
+    private final WebClientProperties properties;
+
     // application.yml에서 python.server.url 값을 읽어옴
     @Value("${python.server.url}")
     private String aiServerUrl;
 
+    // Flask 서버 전용 커넥션 풀 (reactor.netty.connection.provider.* 메트릭으로 active/idle/pending 확인 가능)
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider aiServerConnectionProvider() {
+        return ConnectionProvider.builder("ai-server")
+                .maxConnections(properties.getPool().getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPool().getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPool().getPendingAcquireTimeout())
+                .maxIdleTime(properties.getPool().getMaxIdleTime())
+                .maxLifeTime(properties.getPool().getMaxLifeTime())
+                .evictInBackground(properties.getPool().getEvictInterval())
+                .metrics(true)
+                .build();
+    }
+
     @Bean
-    public WebClient aiServerWebClient() {
+    public WebClient aiServerWebClient(ConnectionProvider aiServerConnectionProvider) {
+        HttpProtocol protocol = HttpProtocol.valueOf(properties.getProtocol().toUpperCase());
+
+        HttpClient httpClient = HttpClient.create(aiServerConnectionProvider)
+                .protocol(protocol)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout())
+                .keepAlive(true)
+                .compress(properties.isCompress())
+                // path 변수(채팅방 id 등)는 묶어서 태그 수가 폭증하지 않도록 함
+                .metrics(true, uri -> uri.replaceAll("/\\d+", "/{id}"));
+
+        ExchangeStrategies strategies = ExchangeStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs()
+                        .maxInMemorySize((int) properties.getMaxInMemorySize().toBytes()))
+                .build();
+
         return WebClient.builder()
                 .baseUrl(aiServerUrl) // yml 파일에서 설정된 URL 사용
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .exchangeStrategies(strategies)
                 .build();
     }
-}
\ No newline at end of file
+}
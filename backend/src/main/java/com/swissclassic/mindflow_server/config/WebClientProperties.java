@@ -0,0 +1,70 @@
+package com.swissclassic.mindflow_server.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// AI(Flask) 서버 WebClient 커넥션 풀 / 타임아웃 설정 (application.yml 의 python.server.*)
+@Configuration
+@ConfigurationProperties("python.server")
+@Getter
+@Setter
+public class WebClientProperties {
+
+    private final Pool pool = new Pool();
+
+    private final All all = new All();
+
+    private Duration connectTimeout = Duration.ofSeconds(3);
+
+    // 응답 수신 중 읽기 사이 최대 간격, LLM 은 첫 바이트까지 오래 걸릴 수 있어 넉넉하게 둠
+    private Duration responseTimeout = Duration.ofSeconds(90);
+
+    // HTTP11 (keep-alive) 또는 H2C (평문 HTTP/2)
+    private String protocol = "HTTP11";
+
+    private boolean compress = true;
+
+    // 메모리에 버퍼링할 응답 본문 최대 크기
+    private DataSize maxInMemorySize = DataSize.ofMegabytes(4);
+
+    @Getter
+    @Setter
+    public static class Pool {
+
+        // AI 서버로 열 수 있는 최대 커넥션 수
+        private int maxConnections = 100;
+
+        // 커넥션을 기다리는 요청 최대 수, 넘으면 바로 실패
+        private int pendingAcquireMaxCount = 500;
+
+        // 커넥션을 기다릴 수 있는 최대 시간
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+        // 이 시간 이상 쉬고 있는 커넥션은 닫음
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        // 사용 여부와 상관없이 이 시간이 지나면 커넥션을 새로 맺음
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+
+        // idle/만료 커넥션 정리 주기
+        private Duration evictInterval = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class All {
+
+        // /all 병렬 호출 시 모델 하나가 응답할 때까지 기다리는 최대 시간
+        private Duration modelTimeout = Duration.ofSeconds(45);
+
+        // 병렬 호출할 provider(Flask 의 모델 키) -> 세부 모델, 설정 순서대로 호출 (비어 있으면 Flask 일괄 호출)
+        private Map<String, String> models = new LinkedHashMap<>();
+    }
+}
@@ -9,8 +9,13 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Instant;
 import java.util.*;
@@ -28,32 +33,73 @@ public class ChatController {
         private final ChatRoomService roomService;
         private final ChatLogService chatLogService;
         private final ConversationSummaryService conversationSummaryService;
-        private final MemoryService memoryService;
+        private final MemoryPrimingCoordinator memoryPrimingCoordinator;
 
         @PostMapping("/send")
         @Operation(description = "gemini-2.0-flash-exp")
-        public ChatApiResponse getChatResponse(@RequestBody ChatRequest chatRequest) {
+        public Mono<ChatApiResponse> getChatResponse(@RequestBody ChatRequest chatRequest) {
 
-                ChatApiResponse answer = aiServerService.getChatResponse(chatRequest);
+                // Flask 응답 대기와 MongoDB 저장 모두 논블로킹으로 이어서 처리 (서블릿 스레드 즉시 반환)
+                return aiServerService.getChatResponseAsync(chatRequest)
+                                .doOnNext(answer -> log.info("Flask chat_room_id: {}", answer.getChatRoomId()))
+                                .flatMap(answer -> chatLogService.saveChatLogAsync(
+                                                chatRequest.getChatRoomId(),
+                                                chatRequest.getUserInput(),
+                                                answer.getResponse(),
 
-                // log.info("Flask 에서 도착한 Answer Sentences: {}", answer.getAnswerSentences());
-                log.info("Flask chat_room_id: {}", answer.getChatRoomId());
+                                                chatRequest.getModel(),
+                                                chatRequest.getDetailModel(),
 
-                chatLogService.saveChatLog(
+                                                answer.getAnswerSentences(), // Pass the full answer sentences
+                                                chatRequest.getCreatorId()
+
+                                ).thenReturn(answer));
+        }
+
+        @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        @Operation(summary = "문장 단위 스트리밍 채팅", description = "완성된 답변 문장을 SSE 로 바로 전달하고 chat_logs 에 한 문장씩 저장합니다.")
+        public Flux<ServerSentEvent<ChatApiResponse.AnswerSentence>> streamChatResponse(@RequestBody ChatRequest chatRequest) {
+
+                return chatLogService.startChatLogAsync(
                                 chatRequest.getChatRoomId(),
                                 chatRequest.getUserInput(),
-                                answer.getResponse(),
-
                                 chatRequest.getModel(),
                                 chatRequest.getDetailModel(),
-                                // chatRequest.getCreatorId()
-
-                                answer.getAnswerSentences(), // Pass the full answer sentences
-                                chatRequest.getCreatorId()
-
-                );
+                                chatRequest.getCreatorId())
+                                .flatMapMany(chatLog -> aiServerService.streamChatResponse(chatRequest)
+                                                // 문장 순서를 지키며 저장된 문장만 클라이언트로 내보냄
+                                                .concatMap(sentence -> chatLogService
+                                                                .appendAnswerSentenceAsync(chatLog.getId(), sentence)
+                                                                .thenReturn(sentence))
+                                                .map(sentence -> ServerSentEvent.builder(sentence)
+                                                                .id(sentence.getSentenceId())
+                                                                .event("sentence")
+                                                                .build())
+                                                .concatWith(Flux.just(ServerSentEvent.<ChatApiResponse.AnswerSentence>builder()
+                                                                .event("done")
+                                                                .build()))
+                                                // 실패하면 done 대신 error 이벤트를 보내고, 중간까지 저장된 대화는 삭제
+                                                // (클라이언트는 error 를 받으면 이미 받은 문장을 버림)
+                                                .onErrorResume(e -> {
+                                                        log.warn("Chat stream failed: room={}, chatLog={}, {}",
+                                                                        chatRequest.getChatRoomId(), chatLog.getId(), e.getMessage());
+                                                        return chatLogService.discardChatLogAsync(chatLog.getId())
+                                                                        .onErrorResume(deleteError -> {
+                                                                                log.error("Failed to discard partial chat log {}", chatLog.getId(), deleteError);
+                                                                                return Mono.empty();
+                                                                        })
+                                                                        .thenMany(Flux.just(streamError(e)));
+                                                }));
+        }
 
-                return answer;
+        private static ServerSentEvent<ChatApiResponse.AnswerSentence> streamError(Throwable e) {
+                ChatApiResponse.AnswerSentence error = new ChatApiResponse.AnswerSentence();
+                error.setError(e instanceof AiServerStreamException
+                                ? e.getMessage()
+                                : "답변 생성 중 오류가 발생했습니다.");
+                return ServerSentEvent.builder(error)
+                                .event("error")
+                                .build();
         }
 
         @PostMapping("/all")
@@ -61,12 +107,25 @@ public class ChatController {
                 return aiServerService.getAllChatResponse(chatRequest);
         }
 
+        @PostMapping(value = "/all/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        @Operation(summary = "모델별 병렬 응답 스트리밍", description = "각 모델의 응답을 완료되는 순서대로 SSE 로 전달합니다. 시간 초과된 모델은 timeout 상태로 전달됩니다.")
+        public Flux<ServerSentEvent<ChatAllEvent>> streamAllResponse(@RequestBody ChatAllRequest chatRequest) {
+                return aiServerService.streamAllChatResponses(chatRequest)
+                                .map(event -> ServerSentEvent.builder(event)
+                                                .event(event.getStatus())
+                                                .build())
+                                .concatWith(Flux.just(ServerSentEvent.<ChatAllEvent>builder()
+                                                .event("done")
+                                                .build()));
+        }
+
         // 여기는 말만 summary지 실제로는 대화를 저장함
         @PostMapping("/choiceModel")
-        FirstChatRespose firstChat(@RequestBody ConversationSummaryRequest conversationSummaryRequest) {
+        Mono<FirstChatRespose> firstChat(@RequestBody ConversationSummaryRequest conversationSummaryRequest) {
 
+                // 제목 생성을 기다리지 않도록 임시 제목(질문 앞부분)으로 방을 먼저 만들어 roomId 확보
                 ChatRoom room = roomService.createChatRoom(
-                                roomService.getTitle(conversationSummaryRequest.getUserInput()),
+                                provisionalTitle(conversationSummaryRequest.getUserInput()),
                                 conversationSummaryRequest.getCreatorId());
                 long roomId = room.getId();
 
@@ -87,34 +146,35 @@ public class ChatController {
                                 })
                                 .collect(Collectors.toList());
 
-                // 수정된 saveChatLog 메서드 호출
+                // 제목 생성, 대화 저장, 메모리 세팅은 서로 독립적이므로 동시에 진행
+                Mono<Void> title = roomService.getTitleAsync(conversationSummaryRequest.getUserInput())
+                                .flatMap(generated -> Mono.fromRunnable(() -> roomService.updateTitle(roomId, generated))
+                                                .subscribeOn(Schedulers.boundedElastic()))
+                                .onErrorResume(e -> {
+                                        log.warn("채팅방 {} 제목 생성 실패, 임시 제목 유지: {}", roomId, e.getMessage());
+                                        return Mono.empty();
+                                })
+                                .then()
+                                .cache();
 
-                chatLogService.saveChatLog(
+                Mono<Void> saved = chatLogService.saveChatLogAsync(
                                 roomId,
                                 conversationSummaryRequest.getUserInput(),
                                 conversationSummaryRequest.getAnswer(),
 
                                 conversationSummaryRequest.getModel(),
                                 conversationSummaryRequest.getDetailModel(),
-                                // (conversationSummaryRequest.getCreatorId())
 
                                 answerSentences, // 새로 생성한 AnswerSentence 리스트
                                 conversationSummaryRequest.getCreatorId()
+                ).then().cache();
 
-                );
+                Mono<Void> memory = memoryPrimingCoordinator.prime(roomId)
+                                .onErrorResume(e -> {
+                                        log.warn("채팅방 {} 메모리 세팅 실패: {}", roomId, e.getMessage());
+                                        return Mono.empty();
+                                });
 
-                // ConversationSummary conversationSummary = new ConversationSummary();
-                // conversationSummary.setTimestamp(String.valueOf(Instant.now()));
-                // conversationSummary.setChatRoomId(roomId);
-                // conversationSummary.setSummaryContent(
-                // "User:" + conversationSummaryRequest.getUserInput() + "\nAI" +
-                // conversationSummaryRequest.getAnswer());
-                //
-                // conversationSummaryService.saveConversationSummary(conversationSummary);
-                memoryService.setMemory(roomId);
-
-                // 마인드맵 생성을 위한 요청 추가
-                log.info("초기 마인드맵 생성!!!!!!!!!!!!!!!!!!!!!!!");
                 // 마인드맵 생성 요청 시 MongoDB에 저장된 sentenceId 전달
                 Map<String, Object> requestBody = new HashMap<>();
                 requestBody.put("chatRoomId", roomId);
@@ -122,12 +182,29 @@ public class ChatController {
                 requestBody.put("creatorId", conversationSummaryRequest.getCreatorId());
                 requestBody.put("answerSentences", answerSentences); // 이미 저장된 sentenceId 사용
 
-                aiServerService.createFirstMindmap(requestBody); // 새로운 메서드
+                // Flask 가 방 제목을 조회하므로 제목/대화 저장 이후에 시작하고, 응답은 기다리지 않음
+                // 완료 여부는 Flask 의 mindmap_status 소켓 이벤트로 클라이언트에 전달됨
+                Mono.when(title, saved)
+                                .then(aiServerService.createFirstMindmapAsync(requestBody))
+                                .subscribe(
+                                                unused -> {
+                                                },
+                                                e -> log.error("채팅방 {} 초기 마인드맵 생성 실패", roomId, e),
+                                                () -> log.info("채팅방 {} 초기 마인드맵 생성 완료", roomId));
 
                 FirstChatRespose firstChatRespose = new FirstChatRespose();
                 firstChatRespose.setChatRoomId((roomId));
 
-                return firstChatRespose;
+                return Mono.when(title, saved, memory)
+                                .thenReturn(firstChatRespose);
+        }
+
+        private static String provisionalTitle(String userInput) {
+                String trimmed = userInput == null ? "" : userInput.strip();
+                if (trimmed.isEmpty()) {
+                        return "새 대화";
+                }
+                return trimmed.length() > 30 ? trimmed.substring(0, 30) + "..." : trimmed;
         }
 
         @GetMapping("/room-title/{chatRoomId}")
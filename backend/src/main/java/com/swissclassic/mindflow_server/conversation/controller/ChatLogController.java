@@ -1,10 +1,15 @@
 package com.swissclassic.mindflow_server.conversation.controller;
+import com.swissclassic.mindflow_server.conversation.model.dto.ChatLogSearchPage;
+import com.swissclassic.mindflow_server.conversation.model.dto.SentenceDetail;
+import com.swissclassic.mindflow_server.conversation.model.dto.SentenceDetailRequest;
 import com.swissclassic.mindflow_server.conversation.model.entity.ChatLog;
 import com.swissclassic.mindflow_server.conversation.service.ChatLogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
@@ -21,4 +26,18 @@ public class ChatLogController {
     public List<ChatLog> search(@PathVariable String keyword, @PathVariable long creatorId) {
         return service.findBySentenceContent(keyword, creatorId);
     }
+
+    @GetMapping("/search")
+    public ChatLogSearchPage searchRanked(@RequestParam String keyword,
+                                          @RequestParam long creatorId,
+                                          @RequestParam(defaultValue = "0") int page,
+                                          @RequestParam(required = false) Integer size) {
+        return service.searchChatLogs(keyword, creatorId, page, size);
+    }
+
+    // 마인드맵 노드들의 원본 문장을 한 번에 조회 (Accept: application/x-ndjson 이면 한 줄씩 스트리밍)
+    @PostMapping(value = "/sentences", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<SentenceDetail> sentenceDetails(@RequestBody SentenceDetailRequest request) {
+        return service.findSentenceDetails(request.getMongoRefs(), request.getChatRoomId());
+    }
 }
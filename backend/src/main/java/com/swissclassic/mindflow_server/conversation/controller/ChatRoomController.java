@@ -1,12 +1,13 @@
 package com.swissclassic.mindflow_server.conversation.controller;
 
+import com.swissclassic.mindflow_server.conversation.model.dto.ChatLogPage;
 import com.swissclassic.mindflow_server.conversation.model.dto.ChatRoomResponse;
 import com.swissclassic.mindflow_server.conversation.model.entity.ChatLog;
 import com.swissclassic.mindflow_server.conversation.model.entity.ChatRoom;
 import com.swissclassic.mindflow_server.conversation.service.ChatLogService;
 import com.swissclassic.mindflow_server.conversation.service.ChatRoomService;
 import com.swissclassic.mindflow_server.conversation.service.ConversationSummaryService;
-import com.swissclassic.mindflow_server.conversation.service.MemoryService;
+import com.swissclassic.mindflow_server.conversation.service.MemoryPrimingCoordinator;
 import com.swissclassic.mindflow_server.mindmap.service.TopicService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,7 +25,7 @@ public class ChatRoomController {
     private final ChatLogService chatLogService;
     private final ConversationSummaryService conversationSummaryService;
     private final TopicService topicService;
-    private final MemoryService memoryService;
+    private final MemoryPrimingCoordinator memoryPrimingCoordinator;
 
     @GetMapping("my-rooms/{creatorId}")
     public ResponseEntity<List<ChatRoomResponse>> getChatRoomsByCreatorId(@PathVariable long creatorId) {
@@ -33,17 +34,32 @@ public class ChatRoomController {
     }
     @GetMapping("messages/{chatRoomId}")
     public ResponseEntity<List<ChatLog>> getChatLogsByChatRoomId(@PathVariable long chatRoomId) {
+        // 메모리 세팅은 기다리지 않음 (같은 방 중복 요청/최근 세팅된 방은 건너뜀)
+        memoryPrimingCoordinator.primeInBackground(chatRoomId);
         List<ChatLog> chatLogs = chatLogService.getMessagesByChatRoomId(chatRoomId);
-        memoryService.setMemory(chatRoomId);
         return ResponseEntity.ok(chatLogs); // 200 OK 응답과 함께 데이터 반환
     }
 
+    @GetMapping("messages/{chatRoomId}/page")
+    public ResponseEntity<ChatLogPage> getChatLogPage(@PathVariable long chatRoomId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "before") String direction,
+                                                      @RequestParam(required = false) Integer size,
+                                                      @RequestParam(defaultValue = "true") boolean includeSentences) {
+        if (cursor == null) {
+            // 방을 처음 열 때만 메모리 세팅
+            memoryPrimingCoordinator.primeInBackground(chatRoomId);
+        }
+        return ResponseEntity.ok(chatLogService.getMessagesPage(chatRoomId, cursor, direction, size, includeSentences));
+    }
+
     @DeleteMapping("delete/{chatRoomId}")
     public ResponseEntity<Void> deleteChatRoomByChatRoomId(@PathVariable long chatRoomId) {
         // chatRoomId로 해당하는 챗룸을 삭제하는 서비스 호출
         chatLogService.deleteChatLogsByChatRoomId(chatRoomId);
         conversationSummaryService.deleteConversationSummaryByChatRoomId(chatRoomId);
         chatRoomService.deleteChatRoomById(chatRoomId);
+        memoryPrimingCoordinator.invalidate(chatRoomId).subscribe();
         // 삭제가 완료된 후 204 No Content 반환
 
         // 마인드맵 삭제
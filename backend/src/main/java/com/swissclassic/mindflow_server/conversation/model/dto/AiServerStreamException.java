@@ -0,0 +1,8 @@
+package com.swissclassic.mindflow_server.conversation.model.dto;
+
+// Flask 스트리밍 응답 도중 LLM 호출이 실패했을 때 (NDJSON 의 error 줄)
+public class AiServerStreamException extends RuntimeException {
+    public AiServerStreamException(String message) {
+        super(message);
+    }
+}
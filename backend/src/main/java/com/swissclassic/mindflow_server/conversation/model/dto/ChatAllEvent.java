@@ -0,0 +1,24 @@
+package com.swissclassic.mindflow_server.conversation.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// /api/messages/all 병렬 호출 시 모델 하나의 결과 (완료되는 순서대로 전달)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatAllEvent {
+    public static final String SUCCESS = "success";
+    public static final String TIMEOUT = "timeout";
+    public static final String ERROR = "error";
+
+    private String model;
+    @JsonProperty("detail_model")
+    private String detailModel;
+    private String response;
+    private String status; // success, timeout, error
+}
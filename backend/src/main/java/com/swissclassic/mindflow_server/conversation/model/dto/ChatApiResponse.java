@@ -1,4 +1,5 @@
 package com.swissclassic.mindflow_server.conversation.model.dto;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -34,5 +35,8 @@ public class ChatApiResponse {
         @JsonProperty("sentence_id")
         private String sentenceId;
         private String content;
+        // 스트리밍 중 Flask 가 실패를 알릴 때만 채워짐 (sentence_id, content 없음)
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String error;
     }
 }
\ No newline at end of file
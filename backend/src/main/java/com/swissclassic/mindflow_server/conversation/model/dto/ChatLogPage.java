@@ -0,0 +1,20 @@
+package com.swissclassic.mindflow_server.conversation.model.dto;
+
+import com.swissclassic.mindflow_server.conversation.model.entity.ChatLog;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// 채팅 기록 커서 페이지 (messages 는 항상 오래된 순 정렬)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatLogPage {
+    private List<ChatLog> messages;
+    private String nextCursor; // 같은 direction 으로 다음 페이지를 요청할 때 사용, 더 없으면 null
+    private boolean hasMore;
+}
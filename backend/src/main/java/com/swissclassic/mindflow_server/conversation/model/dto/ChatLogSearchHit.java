@@ -0,0 +1,27 @@
+package com.swissclassic.mindflow_server.conversation.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// 문장 단위 검색 결과 (highlighted 는 HTML 이스케이프 후 일치 부분만 <mark> 로 감싼 문자열)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatLogSearchHit {
+    public static final String QUESTION = "question";
+    public static final String ANSWER = "answer";
+
+    private String chatLogId;
+    private long chatRoomId;
+    private String sentenceId; // 질문에서 찾은 경우 null
+    private String matchedIn;  // question, answer
+    private String content;
+    private String highlighted;
+    private float score;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,20 @@
+package com.swissclassic.mindflow_server.conversation.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// 검색 결과 페이지 (대화 단위로 관련도 순 페이지를 나누고, 그 안의 일치 문장을 펼쳐서 반환)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatLogSearchPage {
+    private List<ChatLogSearchHit> hits;
+    private int page;
+    private int size;
+    private boolean hasMore;
+}
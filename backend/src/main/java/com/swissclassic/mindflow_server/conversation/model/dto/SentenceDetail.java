@@ -0,0 +1,23 @@
+package com.swissclassic.mindflow_server.conversation.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// 마인드맵 노드(mongo_ref) 하나에 대응하는 원본 문장과 질문
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SentenceDetail {
+    private String sentenceId;
+    private String content;
+    private String question;
+    private String chatLogId;
+    private long chatRoomId;
+    private int sentenceIndex; // answer_sentences 안에서의 위치
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,15 @@
+package com.swissclassic.mindflow_server.conversation.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SentenceDetailRequest {
+    private List<String> mongoRefs;
+    private Long chatRoomId; // 지정하면 해당 채팅방의 문장만 (주제 분리로 복사된 문장 구분용)
+}
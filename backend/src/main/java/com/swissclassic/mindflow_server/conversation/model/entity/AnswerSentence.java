@@ -2,12 +2,14 @@ package com.swissclassic.mindflow_server.conversation.model.entity;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.util.UUID;
 
 @Data
 @AllArgsConstructor
+@NoArgsConstructor
 public class AnswerSentence {
     private String sentenceId;
     private String content;
@@ -1,9 +1,11 @@
 package com.swissclassic.mindflow_server.conversation.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -34,4 +36,9 @@ public class ChatLog {
     @Field(name = "created_at")
     private LocalDateTime createdAt;
     private boolean processed;
+
+    // 텍스트 검색 시에만 채워지는 관련도 점수 (저장되지 않음)
+    @TextScore
+    @JsonIgnore
+    private Float score;
 }
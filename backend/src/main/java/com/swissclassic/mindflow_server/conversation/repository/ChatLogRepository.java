@@ -13,6 +13,7 @@ import java.util.Optional;
 @Repository
 public interface ChatLogRepository extends MongoRepository<ChatLog, ObjectId> {
     List<ChatLog> findByChatRoomId(long chatRoomId);
+    List<ChatLog> findByChatRoomIdOrderByCreatedAtAscIdAsc(long chatRoomId);
 
 //    @Query("{'$or': [{'question': {$regex: ?0, $options: 'i'}}, {'answerSentences.content': {$regex: ?0, $options: 'i'}}]}")
 //    List<ChatLog> findBySentenceContent(String searchKeyword);
@@ -0,0 +1,10 @@
+package com.swissclassic.mindflow_server.conversation.repository;
+
+import com.swissclassic.mindflow_server.conversation.model.entity.ChatLog;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+// 요청 스레드를 점유하지 않는 chat_logs 저장용 (비동기 전송 경로에서 사용)
+@Repository
+public interface ReactiveChatLogRepository extends ReactiveMongoRepository<ChatLog, String> {
+}
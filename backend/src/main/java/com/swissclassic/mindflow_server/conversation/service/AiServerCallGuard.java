@@ -0,0 +1,88 @@
+package com.swissclassic.mindflow_server.conversation.service;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+// Flask 서버 호출 보호막: 엔드포인트별 bulkhead / circuit breaker / retry / time limiter
+// 설정은 application.yml 의 resilience4j.* 인스턴스 이름과 아래 상수가 1:1 대응
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AiServerCallGuard {
+    public static final String CHAT = "aiChat";         // /chatbot/message, /chatbot/message/stream
+    public static final String ALL = "aiAll";           // /chatbot/all, /chatbot/all/{model}
+    public static final String TITLE = "aiTitle";       // /chatbot/title
+    public static final String MEMORY = "aiMemory";     // /chatbot/setMemory/{chatRoomId}
+    public static final String MINDMAP = "aiMindmap";   // /chatbot/first-mindmap
+
+    private final BulkheadRegistry bulkheadRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RetryRegistry retryRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+
+    // 단건 호출: bulkhead 안에서 시간 제한 -> 회로 차단 집계 -> 재시도 (재시도 횟수는 인스턴스 설정, 비멱등 호출은 1회)
+    public <T> Mono<T> guard(String name, Mono<T> call) {
+        return call
+                .transformDeferred(BulkheadOperator.of(bulkheadRegistry.bulkhead(name)))
+                .transformDeferred(TimeLimiterOperator.of(timeLimiterRegistry.timeLimiter(name)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(name)))
+                .transformDeferred(RetryOperator.of(retryRegistry.retry(name)))
+                .onErrorMap(this::isRejected, e -> reject(name, e));
+    }
+
+    // 멱등 호출 전용: hedgeDelay 안에 응답이 없으면 같은 요청을 한 번 더 보내고 먼저 온 값을 사용
+    public <T> Mono<T> guardHedged(String name, Mono<T> call, Duration hedgeDelay) {
+        Mono<T> guarded = guard(name, call);
+        if (hedgeDelay == null || hedgeDelay.isZero() || hedgeDelay.isNegative()) {
+            return guarded;
+        }
+        return Mono.firstWithValue(guarded, Mono.delay(hedgeDelay).then(guarded));
+    }
+
+    // 스트리밍 호출: 일부가 이미 전달되었을 수 있으므로 재시도/전체 시간 제한 없이 bulkhead + circuit breaker 만 적용
+    public <T> Flux<T> guardStream(String name, Flux<T> call) {
+        return call
+                .transformDeferred(BulkheadOperator.of(bulkheadRegistry.bulkhead(name)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(name)))
+                .onErrorMap(this::isRejected, e -> reject(name, e));
+    }
+
+    public static boolean isTimeout(Throwable e) {
+        return e instanceof TimeoutException
+                || (e instanceof ResponseStatusException rse && rse.getStatusCode().value() == HttpStatus.GATEWAY_TIMEOUT.value());
+    }
+
+    private boolean isRejected(Throwable e) {
+        return e instanceof BulkheadFullException
+                || e instanceof CallNotPermittedException
+                || e instanceof TimeoutException;
+    }
+
+    // 대기열에 쌓지 않고 바로 503(과부하/회로 열림) 또는 504(시간 초과)로 응답
+    private ResponseStatusException reject(String name, Throwable e) {
+        if (e instanceof TimeoutException) {
+            log.warn("AI server call {} timed out", name);
+            return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "AI 서버 응답 시간 초과", e);
+        }
+        log.warn("AI server call {} rejected: {}", name, e.getMessage());
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "AI 서버가 혼잡합니다. 잠시 후 다시 시도해주세요.", e);
+    }
+}
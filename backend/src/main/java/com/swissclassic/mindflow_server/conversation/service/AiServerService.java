@@ -2,14 +2,22 @@ package com.swissclassic.mindflow_server.conversation.service;
 
 
 import com.swissclassic.mindflow_server.conversation.model.dto.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Map;
 
 public interface AiServerService {
     ChatApiResponse getChatResponse(ChatRequest chatRequest);
+    // 블로킹 없이 응답을 기다리는 전송 경로용
+    Mono<ChatApiResponse> getChatResponseAsync(ChatRequest chatRequest);
+    // 완성된 문장 단위로 AI 서버 응답을 흘려보내는 스트리밍 경로용
+    Flux<ChatApiResponse.AnswerSentence> streamChatResponse(ChatRequest chatRequest);
     ChatAllResponse getAllChatResponse(ChatAllRequest chatRequest);
+    // 모델별로 동시에 호출하고, 먼저 끝난 모델부터 결과를 전달
+    Flux<ChatAllEvent> streamAllChatResponses(ChatAllRequest chatRequest);
     
     // firstChat 시 사용
     void createFirstMindmap(Map<String, Object> request);  // 새로운 메서드
+    Mono<Void> createFirstMindmapAsync(Map<String, Object> request);
 }
@@ -1,5 +1,6 @@
 package com.swissclassic.mindflow_server.conversation.service;
 
+import com.swissclassic.mindflow_server.config.WebClientProperties;
 import com.swissclassic.mindflow_server.conversation.model.dto.*;
 import com.swissclassic.mindflow_server.conversation.model.entity.ChatLog;
 import com.swissclassic.mindflow_server.conversation.repository.ChatLogRepository;
@@ -9,51 +10,148 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AiServerServiceImpl implements AiServerService {
     private final WebClient aiServerWebClient;
+    private final AiServerCallGuard callGuard;
+    private final WebClientProperties properties;
 
     @Override
     public ChatApiResponse getChatResponse(ChatRequest chatRequest) {
+        return getChatResponseAsync(chatRequest).block();
+    }
+
+    @Override
+    public Mono<ChatApiResponse> getChatResponseAsync(ChatRequest chatRequest) {
         // 요청 데이터를 생성
         // Flask API 호출 및 응답 처리
-        return aiServerWebClient.post()
+        return callGuard.guard(AiServerCallGuard.CHAT, aiServerWebClient.post()
                 .uri("/chatbot/message") // Flask 서버의 엔드포인트
                 .header("Content-Type", "application/json")
                 .bodyValue(chatRequest) // JSON 데이터 전송
                 .retrieve()
-                .bodyToMono(ChatApiResponse.class) // 응답 데이터를 문자열로 변환
-                .block();
+                .bodyToMono(ChatApiResponse.class)); // 응답 데이터를 ChatApiResponse 로 변환
     }
+
     @Override
-    public ChatAllResponse getAllChatResponse(ChatAllRequest chatRequest){
-        return aiServerWebClient.post()
-                .uri("/chatbot/all") // Flask 서버의 엔드포인트
-                .header("Content-Type", "application/json")
-                .bodyValue(chatRequest) // JSON 데이터 전송
+    public Flux<ChatApiResponse.AnswerSentence> streamChatResponse(ChatRequest chatRequest) {
+        // Flask 는 문장이 완성될 때마다 NDJSON 한 줄씩 내려준다
+        return callGuard.guardStream(AiServerCallGuard.CHAT, aiServerWebClient.post()
+                .uri("/chatbot/message/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(chatRequest)
                 .retrieve()
-                .bodyToMono(ChatAllResponse.class)
-                .block();// 응답 데이터를 문자열로 변환
+                .bodyToFlux(ChatApiResponse.AnswerSentence.class)
+                // error 줄이 오면 정상 종료가 아니라 실패로 끝냄 (서킷 브레이커에도 실패로 기록)
+                .<ChatApiResponse.AnswerSentence>handle((line, sink) -> {
+                    if (line.getError() != null) {
+                        sink.error(new AiServerStreamException(line.getError()));
+                    } else {
+                        sink.next(line);
+                    }
+                }));
+    }
+
+    @Override
+    public ChatAllResponse getAllChatResponse(ChatAllRequest chatRequest){
+        // 모델별 병렬 호출 결과를 모아서 기존 응답 형식으로 반환 (시간 초과 모델은 제외된 부분 결과)
+        Map<String, ChatAllResponse.ModelResponse> responses = new LinkedHashMap<>();
+        List<ChatAllEvent> events = streamAllChatResponses(chatRequest).collectList()
+                .block();
+
+        for (ChatAllEvent event : events) {
+            if (ChatAllEvent.SUCCESS.equals(event.getStatus())) {
+                responses.put(event.getModel(), new ChatAllResponse.ModelResponse(event.getResponse(), event.getDetailModel()));
+            }
+        }
+
+        return ChatAllResponse.builder()
+                // 실제로 응답이 있는 모델만 (responses 와 같은 목록)
+                .models(new ArrayList<>(responses.keySet()))
+                .userInput(chatRequest.getUserInput())
+                .responses(responses)
+                .build();
+    }
+
+    @Override
+    public Flux<ChatAllEvent> streamAllChatResponses(ChatAllRequest chatRequest) {
+        Map<String, String> models = properties.getAll().getModels();
+        if (models.isEmpty()) {
+            // 모델 목록이 설정되지 않았으면 Flask 의 일괄 호출로 대체
+            return getAllChatResponseAtOnce(chatRequest);
+        }
+        // 모든 모델을 동시에 호출하고 끝나는 순서대로 흘려보냄
+        return Flux.fromIterable(models.entrySet())
+                .flatMap(model -> getSingleModelResponse(chatRequest, model.getKey(), model.getValue()));
+    }
+
+    private Mono<ChatAllEvent> getSingleModelResponse(ChatAllRequest chatRequest, String model, String detailModel) {
+        return callGuard.guard(AiServerCallGuard.ALL, aiServerWebClient.post()
+                        .uri("/chatbot/all/{model}", model)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        // detailModel 이 비어 있으면 Flask 의 기본 세부 모델 사용
+                        .bodyValue(Map.of("userInput", chatRequest.getUserInput(), "detailModel", detailModel == null ? "" : detailModel))
+                        .retrieve()
+                        .bodyToMono(ChatAllResponse.ModelResponse.class))
+                .timeout(properties.getAll().getModelTimeout())
+                .map(response -> ChatAllEvent.builder()
+                        .model(model)
+                        .detailModel(response.getDetailModel())
+                        .response(response.getResponse())
+                        .status(ChatAllEvent.SUCCESS)
+                        .build())
+                .onErrorResume(e -> {
+                    boolean timedOut = AiServerCallGuard.isTimeout(e);
+                    log.warn("Model {} failed in /all fan-out ({})", model, timedOut ? "timeout" : e.getMessage());
+                    return Mono.just(ChatAllEvent.builder()
+                            .model(model)
+                            .detailModel(detailModel)
+                            .status(timedOut ? ChatAllEvent.TIMEOUT : ChatAllEvent.ERROR)
+                            .build());
+                });
+    }
+
+    private Flux<ChatAllEvent> getAllChatResponseAtOnce(ChatAllRequest chatRequest) {
+        return callGuard.guard(AiServerCallGuard.ALL, aiServerWebClient.post()
+                        .uri("/chatbot/all") // Flask 서버의 엔드포인트
+                        .header("Content-Type", "application/json")
+                        .bodyValue(chatRequest) // JSON 데이터 전송
+                        .retrieve()
+                        .bodyToMono(ChatAllResponse.class))
+                .flatMapIterable(response -> response.getResponses().entrySet())
+                .map(entry -> ChatAllEvent.builder()
+                        .model(entry.getKey())
+                        .detailModel(entry.getValue().getDetailModel())
+                        .response(entry.getValue().getResponse())
+                        .status(ChatAllEvent.SUCCESS)
+                        .build());
     }
 
 
     @Override
     public void createFirstMindmap(Map<String, Object> request) {
-        aiServerWebClient.post()
+        createFirstMindmapAsync(request).block();
+    }
+
+    @Override
+    public Mono<Void> createFirstMindmapAsync(Map<String, Object> request) {
+        return callGuard.guard(AiServerCallGuard.MINDMAP, aiServerWebClient.post()
                 .uri("/chatbot/first-mindmap")
                 .bodyValue(request)
                 .retrieve()
-                .bodyToMono(Void.class)
-                .block();
+                .bodyToMono(Void.class));
     }
 
-}
\ No newline at end of file
+}
@@ -1,8 +1,14 @@
 package com.swissclassic.mindflow_server.conversation.service;
 
 import com.swissclassic.mindflow_server.conversation.model.dto.ChatApiResponse;
+import com.swissclassic.mindflow_server.conversation.model.dto.ChatLogPage;
+import com.swissclassic.mindflow_server.conversation.model.dto.ChatLogSearchPage;
+import com.swissclassic.mindflow_server.conversation.model.dto.SentenceDetail;
 import com.swissclassic.mindflow_server.conversation.model.entity.ChatLog;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ChatLogService {
@@ -14,8 +20,34 @@ public interface ChatLogService {
                      String detailModel,
                      List<ChatApiResponse.AnswerSentence> answerSentences,
                      long userId); // 대화 저장
+
+    // 대화 저장 (요청 스레드를 막지 않는 reactive 저장)
+    Mono<ChatLog> saveChatLogAsync(long chatRoomId,
+                                   String userInput,
+                                   String responseSentences,
+                                   String model,
+                                   String detailModel,
+                                   List<ChatApiResponse.AnswerSentence> answerSentences,
+                                   long userId);
+
+    // 스트리밍 응답용: 빈 답변으로 대화를 먼저 저장하고, 문장이 완성될 때마다 이어 붙임
+    Mono<ChatLog> startChatLogAsync(long chatRoomId,
+                                    String userInput,
+                                    String model,
+                                    String detailModel,
+                                    long userId);
+    Mono<Void> appendAnswerSentenceAsync(String chatLogId, ChatApiResponse.AnswerSentence answerSentence);
+    // 스트리밍이 실패해서 답변이 중간에 끊긴 대화 삭제
+    Mono<Void> discardChatLogAsync(String chatLogId);
+
     List<ChatLog> getMessagesByChatRoomId(long chatRoomId);
+    // (created_at, _id) 기준 커서 페이지 조회, direction 은 before(이전 대화) / after(이후 대화)
+    ChatLogPage getMessagesPage(long chatRoomId, String cursor, String direction, Integer size, boolean includeSentences);
     List<ChatLog> findBySentenceContent(String searchKeyword,long userId);
+    // 텍스트 인덱스 기반 검색 (관련도 순, 문장 단위, 하이라이트 포함)
+    ChatLogSearchPage searchChatLogs(String keyword, long userId, int page, Integer size);
+    // 마인드맵 노드 상세: 여러 sentenceId 의 문장/질문을 한 번의 aggregation 으로 조회
+    Flux<SentenceDetail> findSentenceDetails(List<String> sentenceIds, Long chatRoomId);
     void deleteChatLogsByChatRoomId(long chatRoomId);
 
 
@@ -26,6 +58,9 @@ public interface ChatLogService {
     // 주제 분리용
     void copyAndUpdateChatLog(String mongoRef, long oldChatRoomId, long newChatRoomId);
 
+    // 주제 분리: 하위 트리의 mongo_ref 들이 들어 있는 대화 기록을 새 채팅방으로 한 번에 복사, 복사한 문서 수 반환
+    int copyChatLogsToRoom(Collection<String> mongoRefs, long oldChatRoomId, long newChatRoomId);
+
     ChatLog findByMongoRef(String mongoRef);
 
 }
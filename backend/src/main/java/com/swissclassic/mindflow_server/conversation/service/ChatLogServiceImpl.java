@@ -1,22 +1,61 @@
 package com.swissclassic.mindflow_server.conversation.service;
 
 import com.swissclassic.mindflow_server.conversation.model.dto.ChatApiResponse;
+import com.swissclassic.mindflow_server.conversation.model.dto.ChatLogPage;
+import com.swissclassic.mindflow_server.conversation.model.dto.ChatLogSearchHit;
+import com.swissclassic.mindflow_server.conversation.model.dto.ChatLogSearchPage;
+import com.swissclassic.mindflow_server.conversation.model.dto.SentenceDetail;
 import com.swissclassic.mindflow_server.conversation.model.entity.AnswerSentence;
 import com.swissclassic.mindflow_server.conversation.model.entity.ChatLog;
 import com.swissclassic.mindflow_server.conversation.repository.ChatLogRepository;
+import com.swissclassic.mindflow_server.conversation.repository.ReactiveChatLogRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.HtmlUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,12 +63,38 @@ import java.util.stream.Collectors;
 public class ChatLogServiceImpl implements ChatLogService {
 
     private final ChatLogRepository chatLogRepository;
+    private final ReactiveChatLogRepository reactiveChatLogRepository;
     private final MongoTemplate mongoTemplate;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ChatLogWriteBehind chatLogWriteBehind;
+    private final SentenceLocator sentenceLocator;
+
+    private static final String DIRECTION_BEFORE = "before";
+    private static final String DIRECTION_AFTER = "after";
+    private static final String SENTENCE_ID = "answer_sentences.sentenceId";
+
+    @Value("${chat-log.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${chat-log.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${chat-log.sentences.max-ids:1000}")
+    private int maxSentenceIds;
 
     @Autowired
-    public ChatLogServiceImpl(ChatLogRepository chatLogRepository, MongoTemplate mongoTemplate) {
+    public ChatLogServiceImpl(ChatLogRepository chatLogRepository,
+                              ReactiveChatLogRepository reactiveChatLogRepository,
+                              MongoTemplate mongoTemplate,
+                              ReactiveMongoTemplate reactiveMongoTemplate,
+                              ChatLogWriteBehind chatLogWriteBehind,
+                              SentenceLocator sentenceLocator) {
         this.chatLogRepository = chatLogRepository;
+        this.reactiveChatLogRepository = reactiveChatLogRepository;
         this.mongoTemplate = mongoTemplate;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.chatLogWriteBehind = chatLogWriteBehind;
+        this.sentenceLocator = sentenceLocator;
     }
 
     @Override
@@ -41,6 +106,66 @@ public class ChatLogServiceImpl implements ChatLogService {
                             List<ChatApiResponse.AnswerSentence> answerSentences,
                             long userId) {
 
+        ChatLog chatLog = buildChatLog(chatRoomId, userInput, model, detailModel, answerSentences, userId);
+        if (chatLogWriteBehind.isEnabled()) {
+            chatLogWriteBehind.submit(chatLog); // 큐에 넣고 바로 반환 (Mongo 반영은 배치로)
+            return;
+        }
+        chatLogRepository.save(chatLog);
+    }
+
+    @Override
+    public Mono<ChatLog> saveChatLogAsync(long chatRoomId,
+                                          String userInput,
+                                          String responseSentences,
+                                          String model,
+                                          String detailModel,
+                                          List<ChatApiResponse.AnswerSentence> answerSentences,
+                                          long userId) {
+
+        ChatLog chatLog = buildChatLog(chatRoomId, userInput, model, detailModel, answerSentences, userId);
+        if (chatLogWriteBehind.isEnabled()) {
+            // 큐가 가득 차면 잠시 대기하거나 직접 저장하므로 boundedElastic 에서 실행
+            return Mono.fromCallable(() -> chatLogWriteBehind.submit(chatLog))
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+        return reactiveChatLogRepository.save(chatLog);
+    }
+
+    @Override
+    public Mono<ChatLog> startChatLogAsync(long chatRoomId,
+                                           String userInput,
+                                           String model,
+                                           String detailModel,
+                                           long userId) {
+
+        return reactiveChatLogRepository.save(
+                buildChatLog(chatRoomId, userInput, model, detailModel, List.of(), userId));
+    }
+
+    @Override
+    public Mono<Void> appendAnswerSentenceAsync(String chatLogId, ChatApiResponse.AnswerSentence answerSentence) {
+        // 문서 전체를 다시 쓰지 않고 answer_sentences 배열 끝에 한 문장만 추가
+        Query query = new Query(Criteria.where("id").is(chatLogId));
+        Update update = new Update().push("answerSentences",
+                new AnswerSentence(answerSentence.getSentenceId(), answerSentence.getContent()));
+
+        return reactiveMongoTemplate.updateFirst(query, update, ChatLog.class)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> discardChatLogAsync(String chatLogId) {
+        return reactiveChatLogRepository.deleteById(chatLogId);
+    }
+
+    private ChatLog buildChatLog(long chatRoomId,
+                                 String userInput,
+                                 String model,
+                                 String detailModel,
+                                 List<ChatApiResponse.AnswerSentence> answerSentences,
+                                 long userId) {
+
         ChatLog chatLog = new ChatLog();
         chatLog.setChatRoomId(chatRoomId);
         chatLog.setUserId(userId);
@@ -60,51 +185,408 @@ public class ChatLogServiceImpl implements ChatLogService {
 
         chatLog.setProcessed(false);
 
-        chatLogRepository.save(chatLog);
+        return chatLog;
     }
 
     @Override
     public List<ChatLog> getMessagesByChatRoomId(long chatRoomId) {
-        return chatLogRepository.findByChatRoomId(chatRoomId); // chatRoomId로 조회
+        List<ChatLog> chatLogs = chatLogRepository.findByChatRoomIdOrderByCreatedAtAscIdAsc(chatRoomId); // chatRoomId로 조회 (대화 순서대로)
+
+        // 아직 배치 저장 대기 중인 최신 대화도 함께 반환
+        List<ChatLog> pending = chatLogWriteBehind.pendingFor(chatRoomId);
+        if (pending.isEmpty()) {
+            return chatLogs;
+        }
+        Set<String> savedIds = chatLogs.stream().map(ChatLog::getId).collect(Collectors.toSet());
+        List<ChatLog> merged = new ArrayList<>(chatLogs);
+        pending.stream()
+                .filter(chatLog -> savedIds.add(chatLog.getId()))
+                .forEach(merged::add);
+        return merged;
+    }
+
+    @Override
+    public ChatLogPage getMessagesPage(long chatRoomId,
+                                       String cursor,
+                                       String direction,
+                                       Integer size,
+                                       boolean includeSentences) {
+        boolean older = direction == null || DIRECTION_BEFORE.equalsIgnoreCase(direction);
+        if (!older && !DIRECTION_AFTER.equalsIgnoreCase(direction)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "direction 은 before 또는 after 만 가능합니다.");
+        }
+        int pageSize = Math.min(size == null || size <= 0 ? defaultPageSize : size, maxPageSize);
+
+        Criteria criteria = Criteria.where("chatRoomId").is(chatRoomId);
+        if (cursor != null && !cursor.isBlank()) {
+            PageCursor position = PageCursor.decode(cursor);
+            // (created_at, _id) 키셋 비교: 같은 시각이면 _id 로 순서 결정
+            // created_at 이 없는 이전 기록은 Mongo 정렬과 같이 가장 오래된 쪽(null)으로 취급
+            Criteria sameTime = Criteria.where("createdAt").is(position.createdAt());
+            Criteria id = Criteria.where("_id");
+            Criteria sameTimeAndId = new Criteria().andOperator(
+                    sameTime, older ? id.lt(position.id()) : id.gt(position.id()));
+            if (position.createdAt() == null) {
+                criteria = older
+                        ? criteria.andOperator(sameTimeAndId)
+                        : criteria.orOperator(Criteria.where("createdAt").ne(null), sameTimeAndId);
+            } else {
+                Criteria createdAt = Criteria.where("createdAt");
+                criteria = older
+                        ? criteria.orOperator(createdAt.lt(position.createdAt()),
+                                Criteria.where("createdAt").is(null), sameTimeAndId)
+                        : criteria.orOperator(createdAt.gt(position.createdAt()), sameTimeAndId);
+            }
+        }
+
+        Sort.Direction sortDirection = older ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Query query = new Query(criteria)
+                .with(Sort.by(sortDirection, "createdAt").and(Sort.by(sortDirection, "_id")))
+                .limit(pageSize + 1); // 한 건 더 읽어서 다음 페이지 존재 여부 판단
+        if (!includeSentences) {
+            query.fields().exclude("answerSentences");
+        }
+
+        List<ChatLog> found = new ArrayList<>(mongoTemplate.find(query, ChatLog.class));
+        mergePending(found, chatRoomId, cursor, older, includeSentences);
+        if (found.size() > pageSize + 1) {
+            found = new ArrayList<>(found.subList(0, pageSize + 1));
+        }
+        boolean hasMore = found.size() > pageSize;
+        List<ChatLog> page = new ArrayList<>(found.subList(0, Math.min(found.size(), pageSize)));
+
+        String nextCursor = hasMore ? PageCursor.encode(page.get(page.size() - 1)) : null;
+        if (older) {
+            Collections.reverse(page); // 화면에는 항상 오래된 순으로
+        }
+
+        return ChatLogPage.builder()
+                .messages(page)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // 아직 배치 저장 대기 중인 기록 중 이 페이지 범위에 드는 것을 같은 (created_at, _id) 순서로 끼워 넣음
+    // 대기 중인 기록은 가장 최신이므로 사실상 첫(최신) 페이지나 after 방향 마지막 페이지에만 들어감
+    private void mergePending(List<ChatLog> found, long chatRoomId, String cursor, boolean older, boolean includeSentences) {
+        List<ChatLog> pending = chatLogWriteBehind.pendingFor(chatRoomId);
+        if (pending.isEmpty()) {
+            return;
+        }
+        PageCursor position = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor);
+        Set<String> foundIds = found.stream().map(ChatLog::getId).collect(Collectors.toSet());
+        for (ChatLog chatLog : pending) {
+            if (position != null) {
+                int compared = PageCursor.compare(chatLog, position);
+                if (older ? compared >= 0 : compared <= 0) {
+                    continue;
+                }
+            }
+            if (!foundIds.add(chatLog.getId())) {
+                continue;
+            }
+            // 큐에 있는 원본은 건드리지 않도록 복사본으로 반환
+            ChatLog copy = new ChatLog();
+            BeanUtils.copyProperties(chatLog, copy);
+            if (!includeSentences) {
+                copy.setAnswerSentences(null);
+            }
+            found.add(copy);
+        }
+        Comparator<ChatLog> order = PageCursor::compareKeys;
+        found.sort(older ? order.reversed() : order);
+    }
+
+    // 커서 = base64url("created_at epoch millis:ObjectId"), created_at 이 없는 이전 기록은 ":ObjectId"
+    private record PageCursor(Date createdAt, ObjectId id) {
+
+        // Mongo 와 같이 created_at 없음(null)이 가장 앞
+        private static final Comparator<Date> TIME_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+        static PageCursor of(ChatLog chatLog) {
+            return new PageCursor(toDate(chatLog.getCreatedAt()), new ObjectId(chatLog.getId()));
+        }
+
+        static int compare(ChatLog chatLog, PageCursor position) {
+            int byTime = TIME_ORDER.compare(toDate(chatLog.getCreatedAt()), position.createdAt());
+            return byTime != 0 ? byTime : new ObjectId(chatLog.getId()).compareTo(position.id());
+        }
+
+        static int compareKeys(ChatLog a, ChatLog b) {
+            return compare(a, of(b));
+        }
+
+        // Mongo 에는 밀리초 단위로 저장되므로 비교도 밀리초 기준
+        static Date toDate(LocalDateTime createdAt) {
+            return createdAt == null
+                    ? null
+                    : new Date(createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+
+        static PageCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(':');
+                String millis = raw.substring(0, separator);
+                return new PageCursor(millis.isEmpty() ? null : new Date(Long.parseLong(millis)),
+                        new ObjectId(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 cursor 입니다.", e);
+            }
+        }
+
+        static String encode(ChatLog chatLog) {
+            Date createdAt = toDate(chatLog.getCreatedAt());
+            String raw = (createdAt == null ? "" : createdAt.getTime()) + ":" + chatLog.getId();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
     }
 
     @Override
     public  List<ChatLog> findBySentenceContent(String searchKeyword,long userId){
-        return chatLogRepository.findBySentenceContent(searchKeyword,userId);
+        // 검색어를 정규식이 아닌 문자열 그대로 비교하도록 이스케이프
+        return chatLogRepository.findBySentenceContent(Pattern.quote(searchKeyword),userId);
+    }
+
+    @Override
+    public ChatLogSearchPage searchChatLogs(String keyword, long userId, int page, Integer size) {
+        int pageSize = Math.min(size == null || size <= 0 ? defaultPageSize : size, maxPageSize);
+        int pageNumber = Math.max(page, 0);
+        List<String> terms = searchTerms(keyword);
+        if (terms.isEmpty()) {
+            return ChatLogSearchPage.builder().hits(List.of()).page(pageNumber).size(pageSize).build();
+        }
+
+        // user_id 가 텍스트 인덱스의 앞 키이므로 사용자 본인 문서 범위에서만 인덱스 조회
+        TextCriteria textCriteria = TextCriteria.forLanguage("none").matching(keyword);
+        Query query = TextQuery.queryText(textCriteria)
+                .sortByScore()
+                .addCriteria(Criteria.where("userId").is(userId))
+                .skip((long) pageNumber * pageSize)
+                .limit(pageSize + 1);
+
+        List<ChatLog> found = mongoTemplate.find(query, ChatLog.class);
+        boolean hasMore = found.size() > pageSize;
+
+        List<ChatLogSearchHit> hits = new ArrayList<>();
+        for (ChatLog chatLog : found.subList(0, Math.min(found.size(), pageSize))) {
+            float score = chatLog.getScore() == null ? 0f : chatLog.getScore();
+            if (containsAny(chatLog.getQuestion(), terms)) {
+                hits.add(searchHit(chatLog, null, ChatLogSearchHit.QUESTION, chatLog.getQuestion(), terms, score));
+            }
+            if (chatLog.getAnswerSentences() != null) {
+                for (AnswerSentence sentence : chatLog.getAnswerSentences()) {
+                    if (containsAny(sentence.getContent(), terms)) {
+                        hits.add(searchHit(chatLog, sentence.getSentenceId(), ChatLogSearchHit.ANSWER,
+                                sentence.getContent(), terms, score));
+                    }
+                }
+            }
+        }
+
+        return ChatLogSearchPage.builder()
+                .hits(hits)
+                .page(pageNumber)
+                .size(pageSize)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Override
+    public Flux<SentenceDetail> findSentenceDetails(List<String> sentenceIds, Long chatRoomId) {
+        List<String> ids = sentenceIds == null ? List.of() : sentenceIds.stream()
+                .filter(id -> id != null && !id.isBlank())
+                .distinct()
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        if (ids.size() > maxSentenceIds) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "mongoRefs 는 한 번에 " + maxSentenceIds + "개까지 조회할 수 있습니다."));
+        }
+
+        Document match = new Document(SENTENCE_ID, new Document("$in", ids));
+        if (chatRoomId != null) {
+            match.append("chat_room_id", chatRoomId);
+        }
+
+        // 멀티키 인덱스로 문서를 고른 뒤 문장 단위로 펼치고, 같은 문장이 여러 방에 복사된 경우 가장 오래된 문서 하나만 사용
+        Aggregation aggregation = Aggregation.newAggregation(
+                stage(new Document("$match", match)),
+                stage(new Document("$sort", new Document("_id", 1))),
+                stage(new Document("$unwind", new Document("path", "$answer_sentences")
+                        .append("includeArrayIndex", "sentenceIndex"))),
+                stage(new Document("$match", new Document(SENTENCE_ID, new Document("$in", ids)))),
+                stage(new Document("$group", new Document("_id", "$answer_sentences.sentenceId")
+                        .append("content", new Document("$first", "$answer_sentences.content"))
+                        .append("question", new Document("$first", "$question"))
+                        .append("chatLogId", new Document("$first", "$_id"))
+                        .append("chatRoomId", new Document("$first", "$chat_room_id"))
+                        .append("sentenceIndex", new Document("$first", "$sentenceIndex"))
+                        .append("createdAt", new Document("$first", "$created_at")))),
+                stage(new Document("$project", new Document("_id", 0)
+                        .append("sentenceId", "$_id")
+                        .append("content", 1)
+                        .append("question", 1)
+                        .append("chatLogId", new Document("$toString", "$chatLogId"))
+                        .append("chatRoomId", 1)
+                        .append("sentenceIndex", 1)
+                        .append("createdAt", 1))));
+
+        return reactiveMongoTemplate.aggregate(aggregation, "chat_logs", SentenceDetail.class);
+    }
+
+    private static AggregationOperation stage(Document stage) {
+        return context -> stage;
+    }
+
+    private ChatLogSearchHit searchHit(ChatLog chatLog,
+                                       String sentenceId,
+                                       String matchedIn,
+                                       String content,
+                                       List<String> terms,
+                                       float score) {
+        return ChatLogSearchHit.builder()
+                .chatLogId(chatLog.getId())
+                .chatRoomId(chatLog.getChatRoomId())
+                .sentenceId(sentenceId)
+                .matchedIn(matchedIn)
+                .content(content)
+                .highlighted(highlight(content, terms))
+                .score(score)
+                .createdAt(chatLog.getCreatedAt())
+                .build();
+    }
+
+    // $search 문법의 따옴표 구문/제외어(-word)를 정리해서 하이라이트할 단어만 추출
+    private static List<String> searchTerms(String keyword) {
+        if (keyword == null) {
+            return List.of();
+        }
+        return Arrays.stream(keyword.replace("\"", " ").trim().split("\\s+"))
+                .filter(term -> !term.isEmpty() && !term.startsWith("-"))
+                .map(term -> term.toLowerCase(Locale.ROOT))
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private static boolean containsAny(String text, List<String> terms) {
+        if (text == null) {
+            return false;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        return terms.stream().anyMatch(lower::contains);
+    }
+
+    private static String highlight(String text, List<String> terms) {
+        String pattern = terms.stream()
+                .sorted(Comparator.comparingInt(String::length).reversed())
+                .map(Pattern::quote)
+                .collect(Collectors.joining("|"));
+        Matcher matcher = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE).matcher(text);
+
+        StringBuilder result = new StringBuilder();
+        int last = 0;
+        while (matcher.find()) {
+            result.append(HtmlUtils.htmlEscape(text.substring(last, matcher.start())))
+                    .append("<mark>")
+                    .append(HtmlUtils.htmlEscape(matcher.group()))
+                    .append("</mark>");
+            last = matcher.end();
+        }
+        return result.append(HtmlUtils.htmlEscape(text.substring(last))).toString();
     }
 
     @Override
     public void deleteChatLogsByChatRoomId(long chatRoomId) {
+        // 아직 저장 대기 중인 기록이 삭제 후에 들어가 고아 문서가 되지 않도록 먼저 정리
+        chatLogWriteBehind.discardRoom(chatRoomId);
         chatLogRepository.deleteByChatRoomId(chatRoomId);
     }
 
 
-    @Transactional
     public void copyAndUpdateChatLog(String mongoRef, long oldChatRoomId, long newChatRoomId) {
-        log.info("Finding document with sentenceId: {} in room {}", mongoRef, oldChatRoomId);
+        copyChatLogsToRoom(List.of(mongoRef), oldChatRoomId, newChatRoomId);
+    }
+
+    // 분리한 하위 트리가 참조하는 대화 기록을 한 번에 복사 ($in 조회 한 번 + insertMany 한 번)
+    // 같은 sentenceId 를 가진 문서가 여러 채팅방에 있으면 이전 채팅방의 문서를, 없으면 가장 먼저 저장된 원본을 복사
+    // 새 채팅방에 이미 복사된 문장이 들어 있는 문서는 건너뛰므로 주제 분리 작업이 다시 실행되어도 중복되지 않음
+    @Override
+    public int copyChatLogsToRoom(Collection<String> mongoRefs, long oldChatRoomId, long newChatRoomId) {
+        Set<String> refs = mongoRefs.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (refs.isEmpty()) {
+            return 0;
+        }
+
+        Query query = new Query(Criteria.where(SENTENCE_ID).in(refs))
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+        List<ChatLog> candidates = new ArrayList<>(mongoTemplate.find(query, ChatLog.class));
+        // 아직 write-behind 큐에 있는 이전 채팅방 기록도 포함
+        candidates.addAll(chatLogWriteBehind.pendingFor(oldChatRoomId));
 
-        // sentenceId로 해당 문서 찾기
-        Query query = new Query(
-                Criteria.where("answerSentences")
-                        .elemMatch(Criteria.where("sentenceId").is(mongoRef))
-        );
+        Set<String> alreadyCopied = new HashSet<>();
+        Map<String, ChatLog> sourceByRef = new HashMap<>();
+        for (ChatLog chatLog : candidates) {
+            if (chatLog.getChatRoomId() == newChatRoomId) {
+                alreadyCopied.addAll(sentenceIdsOf(chatLog));
+                continue;
+            }
+            for (String sentenceId : sentenceIdsOf(chatLog)) {
+                if (!refs.contains(sentenceId)) {
+                    continue;
+                }
+                ChatLog current = sourceByRef.get(sentenceId);
+                if (current == null
+                        || (current.getChatRoomId() != oldChatRoomId && chatLog.getChatRoomId() == oldChatRoomId)) {
+                    sourceByRef.put(sentenceId, chatLog);
+                }
+            }
+        }
 
-        ChatLog originalLog = mongoTemplate.findOne(query, ChatLog.class);
+        // 한 문서에 여러 문장이 있으므로 문서 단위로 한 번씩만 복사 (저장 순서 유지)
+        Set<String> sourceIds = sourceByRef.values().stream()
+                .map(ChatLog::getId)
+                .collect(Collectors.toSet());
+        Map<String, ChatLog> sources = new LinkedHashMap<>();
+        candidates.stream()
+                .filter(chatLog -> sourceIds.contains(chatLog.getId()))
+                .filter(chatLog -> Collections.disjoint(sentenceIdsOf(chatLog), alreadyCopied))
+                .forEach(chatLog -> sources.putIfAbsent(chatLog.getId(), chatLog));
 
-        if (originalLog != null) {
-            log.info("Found original document: {}", originalLog);
+        List<ChatLog> copies = new ArrayList<>(sources.size());
+        for (ChatLog source : sources.values()) {
+            ChatLog copy = new ChatLog();
+            BeanUtils.copyProperties(source, copy, "id", "score");
+            copy.setChatRoomId(newChatRoomId);
+            copies.add(copy);
+        }
+        if (!copies.isEmpty()) {
+            mongoTemplate.insertAll(copies);
+        }
 
-            // 문서 복사 및 새로운 chatRoomId 설정
-            ChatLog newLog = new ChatLog();
-            BeanUtils.copyProperties(originalLog, newLog, "id");
-            newLog.setChatRoomId(newChatRoomId);
+        Set<String> missing = new HashSet<>(refs);
+        missing.removeAll(sourceByRef.keySet());
+        missing.removeAll(alreadyCopied);
+        if (!missing.isEmpty()) {
+            log.warn("No document found for {} sentenceIds while copying room {} -> {}", missing.size(), oldChatRoomId, newChatRoomId);
+        }
+        log.info("Copied {} chat logs ({} sentenceIds) from room {} to {}", copies.size(), refs.size(), oldChatRoomId, newChatRoomId);
+        return copies.size();
+    }
 
-            // 새 문서 저장
-            ChatLog savedLog = chatLogRepository.save(newLog);
-            log.info("Created new document with ID: {} in room {}", savedLog.getId(), newChatRoomId);
-        } else {
-            log.warn("No document found with sentenceId: {}", mongoRef);
+    private static List<String> sentenceIdsOf(ChatLog chatLog) {
+        if (chatLog.getAnswerSentences() == null) {
+            return List.of();
         }
+        return chatLog.getAnswerSentences().stream()
+                .map(AnswerSentence::getSentenceId)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
 
@@ -112,12 +594,7 @@ public class ChatLogServiceImpl implements ChatLogService {
     public ChatLog findByMongoRef(String mongoRef) {
         log.info("Finding ChatLog by mongoRef: {}", mongoRef);
         try {
-            Query query = new Query(
-                    Criteria.where("answerSentences")
-                            .elemMatch(Criteria.where("sentenceId").is(mongoRef))
-            );
-
-            ChatLog result = mongoTemplate.findOne(query, ChatLog.class);
+            ChatLog result = findBySentenceId(mongoRef);
 
             if (result != null) {
                 log.info("Found ChatLog with ID: {}", result.getId());
@@ -132,5 +609,28 @@ public class ChatLogServiceImpl implements ChatLogService {
         }
     }
 
+    // 캐시된 위치(_id, 배열 위치)로 바로 읽고, 문서가 지워졌거나 내용이 맞지 않으면 위치를 다시 찾음
+    private ChatLog findBySentenceId(String sentenceId) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Optional<SentenceLocator.SentenceLocation> location = sentenceLocator.locate(sentenceId);
+            if (location.isEmpty()) {
+                return null;
+            }
+            ChatLog chatLog = mongoTemplate.findById(location.get().chatLogId(), ChatLog.class);
+            if (holdsSentence(chatLog, location.get().index(), sentenceId)) {
+                return chatLog;
+            }
+            sentenceLocator.evict(sentenceId);
+        }
+        return null;
+    }
+
+    private static boolean holdsSentence(ChatLog chatLog, int index, String sentenceId) {
+        return chatLog != null
+                && chatLog.getAnswerSentences() != null
+                && index < chatLog.getAnswerSentences().size()
+                && sentenceId.equals(chatLog.getAnswerSentences().get(index).getSentenceId());
+    }
+
 }
 
@@ -0,0 +1,417 @@
+package com.swissclassic.mindflow_server.conversation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.swissclassic.mindflow_server.conversation.model.entity.ChatLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+// chat_logs 쓰기 지연(write-behind) 저장소
+// - 요청 스레드는 큐에 넣기만 하고, 별도 스레드가 batch-size 개 또는 flush-interval 마다 모아서 unordered bulk insert
+// - 큐가 가득 차면 offer-timeout 만큼 기다린 뒤 호출한 스레드에서 직접 저장 (backpressure)
+// - Mongo 장애 시 실패한 문서는 spill 파일(JSON lines)에 덧붙이고, 이후 주기적으로 다시 넣음
+// - 종료 시 큐에 남은 문서를 모두 저장하거나 spill 파일로 옮김
+// - 큐에서 꺼내는 작업과 조회(pendingFor)는 같은 lock 을 잡으므로 문서가 큐와 inFlight 어디에도 안 보이는 순간이 없음
+@Component
+@Slf4j
+public class ChatLogWriteBehind {
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat-log.write-behind.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat-log.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${chat-log.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chat-log.write-behind.flush-interval:200ms}")
+    private Duration flushInterval;
+
+    @Value("${chat-log.write-behind.offer-timeout:50ms}")
+    private Duration offerTimeout;
+
+    @Value("${chat-log.write-behind.spill-file:./data/chat-log-spill.jsonl}")
+    private String spillFile;
+
+    @Value("${chat-log.write-behind.replay-interval:30s}")
+    private Duration replayInterval;
+
+    @Value("${chat-log.write-behind.discard-timeout:5s}")
+    private Duration discardTimeout;
+
+    @Value("${chat-log.write-behind.deleted-room-ttl:10m}")
+    private Duration deletedRoomTtl;
+
+    private BlockingQueue<ChatLog> queue;
+    // 저장 중인 batch, batchLock 안에서만 바꾸고 읽음
+    private List<ChatLog> inFlight = List.of();
+    private final ReentrantLock batchLock = new ReentrantLock();
+    private final Condition notEmpty = batchLock.newCondition();
+    private final Condition batchDone = batchLock.newCondition();
+    // 삭제된 채팅방, 이후 저장하려는 문서는 버림 (채팅방 id 는 재사용되지 않음)
+    private Cache<Long, Boolean> deletedRooms;
+    private volatile boolean running;
+    private Thread flusher;
+    private final Object spillLock = new Object();
+    private Counter spilledCounter;
+    private Counter callerRunsCounter;
+
+    public ChatLogWriteBehind(MongoTemplate mongoTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        deletedRooms = Caffeine.newBuilder()
+                .expireAfterWrite(deletedRoomTtl)
+                .build();
+        Gauge.builder("chat_log.write_behind.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        spilledCounter = meterRegistry.counter("chat_log.write_behind.spilled");
+        callerRunsCounter = meterRegistry.counter("chat_log.write_behind.caller_runs");
+
+        running = true;
+        flusher = new Thread(this::runFlusher, "chat-log-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // id 를 미리 발급해서 큐에 넣음 (저장 전에도 응답에 id 사용 가능)
+    public ChatLog submit(ChatLog chatLog) {
+        if (chatLog.getId() == null) {
+            chatLog.setId(new ObjectId().toHexString());
+        }
+        try {
+            if (running && queue.offer(chatLog, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                signalNotEmpty();
+                return chatLog;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // 큐가 가득 찼거나 종료 중이면 호출한 스레드에서 직접 저장
+        if (callerRunsCounter != null) {
+            callerRunsCounter.increment();
+        }
+        writeBatch(List.of(chatLog));
+        return chatLog;
+    }
+
+    // 아직 Mongo 에 반영되지 않은 해당 채팅방 기록 (조회 시 병합용)
+    public List<ChatLog> pendingFor(long chatRoomId) {
+        if (!enabled) {
+            return List.of();
+        }
+        List<ChatLog> pending = new ArrayList<>();
+        batchLock.lock();
+        try {
+            for (ChatLog chatLog : inFlight) {
+                if (chatLog.getChatRoomId() == chatRoomId) {
+                    pending.add(chatLog);
+                }
+            }
+            for (ChatLog chatLog : queue) {
+                if (chatLog.getChatRoomId() == chatRoomId) {
+                    pending.add(chatLog);
+                }
+            }
+        } finally {
+            batchLock.unlock();
+        }
+        return pending;
+    }
+
+    // 채팅방 삭제 전에 호출: 큐에 남은 해당 채팅방 문서를 버리고, 저장 중인 batch 에 있으면 끝날 때까지 기다림
+    // 이후 들어오는 문서(spill 재처리 포함)는 deleted-room-ttl 동안 저장 시점에 걸러냄
+    public void discardRoom(long chatRoomId) {
+        if (!enabled) {
+            return;
+        }
+        deletedRooms.put(chatRoomId, Boolean.TRUE);
+        batchLock.lock();
+        try {
+            queue.removeIf(chatLog -> chatLog.getChatRoomId() == chatRoomId);
+            long remaining = discardTimeout.toNanos();
+            while (containsRoom(inFlight, chatRoomId)) {
+                if (remaining <= 0) {
+                    log.warn("채팅방 {} 의 chat_logs batch 저장이 끝나지 않아 삭제 후 남을 수 있음", chatRoomId);
+                    return;
+                }
+                remaining = batchDone.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    private static boolean containsRoom(List<ChatLog> chatLogs, long chatRoomId) {
+        for (ChatLog chatLog : chatLogs) {
+            if (chatLog.getChatRoomId() == chatRoomId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void signalNotEmpty() {
+        batchLock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    // spill 파일 재처리도 이 스레드에서만 실행 (시작 직후 한 번, 이후 큐가 빌 때 replay-interval 마다)
+    private void runFlusher() {
+        long nextReplay = System.nanoTime();
+        while (running || !queue.isEmpty()) {
+            try {
+                List<ChatLog> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                    finishBatch();
+                } else if (System.nanoTime() - nextReplay >= 0) {
+                    replaySpillFile();
+                    nextReplay = System.nanoTime() + replayInterval.toNanos();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("chat_logs write-behind 처리 중 오류", e);
+                finishBatch();
+            }
+        }
+    }
+
+    // 첫 문서를 받은 뒤 batch 가 차거나 flush-interval 이 지날 때까지 모음
+    // 큐에서 꺼내는 즉시 inFlight 에 보이도록 lock 안에서 batch(inFlight)로 옮기고, 기다리는 동안에는 lock 을 놓음
+    private List<ChatLog> nextBatch() throws InterruptedException {
+        List<ChatLog> batch = new ArrayList<>(batchSize);
+        batchLock.lock();
+        try {
+            inFlight = batch;
+            long remaining = flushInterval.toNanos();
+            while (queue.isEmpty()) {
+                if (!running || remaining <= 0) {
+                    return batch;
+                }
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+
+            long deadline = System.nanoTime() + flushInterval.toNanos();
+            while (true) {
+                queue.drainTo(batch, batchSize - batch.size());
+                remaining = deadline - System.nanoTime();
+                if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                    return batch;
+                }
+                notEmpty.awaitNanos(remaining);
+            }
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    private void finishBatch() {
+        batchLock.lock();
+        try {
+            inFlight = List.of();
+            batchDone.signalAll();
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    private void writeBatch(List<ChatLog> chatLogs) {
+        // 삭제된 채팅방의 문서는 저장하지 않음
+        List<ChatLog> batch = chatLogs.stream()
+                .filter(chatLog -> deletedRooms == null || deletedRooms.getIfPresent(chatLog.getChatRoomId()) == null)
+                .toList();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatLog.class)
+                    .insert(batch)
+                    .execute();
+        } catch (Exception e) {
+            List<ChatLog> failed = failedDocuments(batch, e);
+            if (!failed.isEmpty()) {
+                log.warn("chat_logs {}건 저장 실패, spill 파일에 보관: {}", failed.size(), e.getMessage());
+                spill(failed);
+            }
+        }
+    }
+
+    // unordered bulk insert 는 성공한 문서는 그대로 반영되므로 실패한 문서만 골라냄 (이미 들어간 id 는 성공으로 간주)
+    private List<ChatLog> failedDocuments(List<ChatLog> batch, Exception e) {
+        MongoBulkWriteException bulkError = findBulkWriteException(e);
+        if (bulkError == null) {
+            return batch;
+        }
+        Set<Integer> failedIndexes = new HashSet<>();
+        for (BulkWriteError error : bulkError.getWriteErrors()) {
+            if (error.getCode() != DUPLICATE_KEY) {
+                failedIndexes.add(error.getIndex());
+            }
+        }
+        List<ChatLog> failed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (failedIndexes.contains(i)) {
+                failed.add(batch.get(i));
+            }
+        }
+        return failed;
+    }
+
+    private MongoBulkWriteException findBulkWriteException(Throwable e) {
+        while (e != null) {
+            if (e instanceof MongoBulkWriteException bulkWriteException) {
+                return bulkWriteException;
+            }
+            e = e.getCause();
+        }
+        return null;
+    }
+
+    private void spill(List<ChatLog> chatLogs) {
+        synchronized (spillLock) {
+            Path path = Paths.get(spillFile);
+            try {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                StringBuilder lines = new StringBuilder();
+                for (ChatLog chatLog : chatLogs) {
+                    lines.append(objectMapper.writeValueAsString(chatLog)).append('\n');
+                }
+                try (FileOutputStream out = new FileOutputStream(path.toFile(), true)) {
+                    out.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+                    out.getFD().sync();
+                }
+                spilledCounter.increment(chatLogs.size());
+            } catch (IOException e) {
+                log.error("chat_logs spill 파일 기록 실패, {}건 유실: {}", chatLogs.size(),
+                        chatLogs.stream().map(ChatLog::getId).collect(Collectors.joining(",")), e);
+            }
+        }
+    }
+
+    // spill 파일을 옮겨놓고 다시 저장, 이번에도 실패한 문서는 새 spill 파일에 다시 쌓임
+    private void replaySpillFile() {
+        Path path = Paths.get(spillFile);
+        Path replaying = Paths.get(spillFile + ".replaying");
+        synchronized (spillLock) {
+            try {
+                // 이전 재처리가 중간에 끊겼다면 그 파일부터 처리
+                if (!Files.exists(replaying)) {
+                    if (!Files.exists(path)) {
+                        return;
+                    }
+                    Files.move(path, replaying, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                log.error("chat_logs spill 파일 이동 실패", e);
+                return;
+            }
+        }
+
+        int replayed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+            List<ChatLog> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                batch.add(objectMapper.readValue(line, ChatLog.class));
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch);
+                    replayed += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                replayed += batch.size();
+            }
+            Files.delete(replaying);
+            log.info("chat_logs spill 파일 {}건 재처리", replayed);
+        } catch (IOException e) {
+            log.error("chat_logs spill 파일 재처리 실패 ({} 유지)", replaying, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        running = false; // flusher 는 flush-interval 안에 깨어나서 남은 큐를 비우고 종료
+        signalNotEmpty();
+        try {
+            flusher.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // 시간 안에 비우지 못한 문서는 spill 파일로
+        List<ChatLog> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            spill(remaining);
+        }
+    }
+}
@@ -4,6 +4,8 @@ package com.swissclassic.mindflow_server.conversation.service;
 import com.swissclassic.mindflow_server.conversation.model.dto.ChatRoomResponse;
 import com.swissclassic.mindflow_server.conversation.model.entity.ChatRoom;
 
+import reactor.core.publisher.Mono;
+
 import java.util.List;
 
 public interface ChatRoomService {
@@ -11,6 +13,8 @@ public interface ChatRoomService {
     List<ChatRoom> getAllChatRooms();
     ChatRoom getChatRoomById(Long id);
     String getTitle(String input);
+    Mono<String> getTitleAsync(String input);
+    void updateTitle(Long id, String title);
     List<ChatRoomResponse> findAllByCreatorId(long creatorId);
     void deleteChatRoomById(Long id);
 
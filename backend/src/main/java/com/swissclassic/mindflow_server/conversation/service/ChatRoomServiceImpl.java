@@ -9,10 +9,14 @@ import com.swissclassic.mindflow_server.conversation.model.entity.ChatRoom;
 import com.swissclassic.mindflow_server.conversation.repository.ChatRoomRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -22,10 +26,19 @@ import java.util.stream.Collectors;
 public class ChatRoomServiceImpl implements ChatRoomService {
     private final ChatRoomRepository chatRoomRepository;
     private final WebClient webClient; // WebClient를 사용하여 Flask 서버와 통신
+    private final AiServerCallGuard callGuard;
+
+    // 제목 생성이 이 시간 안에 끝나지 않으면 같은 요청을 한 번 더 보냄 (0 이면 사용 안 함)
+    @Value("${python.server.title.hedge-delay:0s}")
+    private Duration titleHedgeDelay;
+
     @Autowired
-    public ChatRoomServiceImpl(ChatRoomRepository chatRoomRepository, WebClient webClient) {
+    public ChatRoomServiceImpl(ChatRoomRepository chatRoomRepository,
+                               @Qualifier("aiServerWebClient") WebClient webClient,
+                               AiServerCallGuard callGuard) {
         this.chatRoomRepository = chatRoomRepository;
         this.webClient = webClient;
+        this.callGuard = callGuard;
     }
 
     @Override
@@ -57,18 +70,30 @@ public class ChatRoomServiceImpl implements ChatRoomService {
 
     @Override
     public String getTitle(String input) {
-        // Flask 서버의 /chatbot/title 엔드포인트 호출
+        return getTitleAsync(input).block(); // 동기 방식으로 결과 반환
+    }
 
-        TitleResponse response = webClient.post()
+    @Override
+    public Mono<String> getTitleAsync(String input) {
+        // Flask 서버의 /chatbot/title 엔드포인트 호출
+        Mono<TitleResponse> call = webClient.post()
                 .uri("/chatbot/title") // 제목 생성 API 엔드포인트
                 .header("Content-Type", "application/json")
                 .bodyValue(new TitleRequest(input)) // 요청 데이터 생성 (TitleRequest 객체 사용)
                 .retrieve()
-                .bodyToMono(TitleResponse.class) // 응답 데이터를 TitleResponse 객체로 변환
-                .block(); // 동기 방식으로 결과 반환
+                .bodyToMono(TitleResponse.class); // 응답 데이터를 TitleResponse 객체로 변환
 
-        // TitleResponse 객체에서 제목 추출
-        return response.getResponse();
+        // 제목 생성은 멱등이므로 느릴 때 hedged 요청 허용
+        return callGuard.guardHedged(AiServerCallGuard.TITLE, call, titleHedgeDelay)
+                .map(TitleResponse::getResponse); // TitleResponse 객체에서 제목 추출
+    }
+
+    @Override
+    @Transactional
+    public void updateTitle(Long id, String title) {
+        ChatRoom chatRoom = getChatRoomById(id);
+        chatRoom.setTitle(title);
+        chatRoomRepository.save(chatRoom);
     }
 
     @Override
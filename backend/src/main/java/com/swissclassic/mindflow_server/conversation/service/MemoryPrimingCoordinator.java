@@ -0,0 +1,75 @@
+package com.swissclassic.mindflow_server.conversation.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Flask 메모리 세팅(/chatbot/setMemory) 중복 호출 방지
+// - 같은 방에 대한 동시 요청은 진행 중인 호출 하나를 공유
+// - 최근 TTL 안에 세팅된 방은 Redis 에 기록해두고 다시 호출하지 않음 (서버 여러 대여도 공유됨)
+@Component
+@Slf4j
+public class MemoryPrimingCoordinator {
+    private static final String KEY_PREFIX = "memory:primed:";
+
+    private final MemoryService memoryService;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Map<Long, Mono<Void>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${memory.priming.ttl:10m}")
+    private Duration primedTtl;
+
+    public MemoryPrimingCoordinator(MemoryService memoryService, ReactiveStringRedisTemplate redisTemplate) {
+        this.memoryService = memoryService;
+        this.redisTemplate = redisTemplate;
+    }
+
+    public Mono<Void> prime(long chatRoomId) {
+        return inFlight.computeIfAbsent(chatRoomId, this::startPriming);
+    }
+
+    // 요청 스레드를 잡지 않고 백그라운드에서 세팅 (실패해도 다음 요청에서 다시 시도)
+    public void primeInBackground(long chatRoomId) {
+        prime(chatRoomId).subscribe(
+                unused -> {
+                },
+                e -> log.warn("채팅방 {} 메모리 세팅 실패: {}", chatRoomId, e.getMessage()));
+    }
+
+    // 방 삭제 등으로 기록을 지워야 할 때
+    public Mono<Void> invalidate(long chatRoomId) {
+        return redisTemplate.delete(key(chatRoomId))
+                .onErrorResume(e -> Mono.just(0L))
+                .then();
+    }
+
+    private Mono<Void> startPriming(Long chatRoomId) {
+        String key = key(chatRoomId);
+        return redisTemplate.hasKey(key)
+                // Redis 장애 시에는 캐시 없이 그냥 호출
+                .onErrorResume(e -> {
+                    log.debug("Redis 조회 실패, 메모리 세팅 강행: {}", e.getMessage());
+                    return Mono.just(false);
+                })
+                .flatMap(primed -> primed
+                        ? Mono.<Void>empty()
+                        : memoryService.setMemoryAsync(chatRoomId)
+                                .then(redisTemplate.opsForValue()
+                                        .set(key, String.valueOf(System.currentTimeMillis()), primedTtl)
+                                        .onErrorResume(e -> Mono.just(false)))
+                                .then())
+                // 끝나면 진행 중 목록에서 제거 (cache 로 구독자 전원이 같은 결과를 받음)
+                .doFinally(signal -> inFlight.remove(chatRoomId))
+                .cache();
+    }
+
+    private static String key(long chatRoomId) {
+        return KEY_PREFIX + chatRoomId;
+    }
+}
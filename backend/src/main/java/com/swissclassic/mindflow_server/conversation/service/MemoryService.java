@@ -1,5 +1,8 @@
 package com.swissclassic.mindflow_server.conversation.service;
 
+import reactor.core.publisher.Mono;
+
 public interface  MemoryService {
     void setMemory(long chatRoomId);
+    Mono<Void> setMemoryAsync(long chatRoomId);
 }
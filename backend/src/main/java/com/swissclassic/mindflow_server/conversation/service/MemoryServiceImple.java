@@ -1,7 +1,9 @@
 package com.swissclassic.mindflow_server.conversation.service;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.util.Map;
 
@@ -9,23 +11,27 @@ import java.util.Map;
 public class MemoryServiceImple implements MemoryService {
 
     private final WebClient webClient; // WebClient를 사용하여 Flask 서버와 통신
+    private final AiServerCallGuard callGuard;
 
-    public MemoryServiceImple(WebClient webClient) {
+    public MemoryServiceImple(@Qualifier("aiServerWebClient") WebClient webClient, AiServerCallGuard callGuard) {
         this.webClient = webClient;
+        this.callGuard = callGuard;
     }
 
 
     @Override
     public void setMemory(long chatRoomId) {
-        // 메서드 구현 내용
-        System.out.println("안녕");
-        webClient.post()
-                .uri("/chatbot/setMemory/{chatRoomId}", chatRoomId) // chatRoomId를 URI에 동적으로 삽입
-                .header("Content-Type", "application/json")
-                .retrieve()
-                .bodyToMono(Map.class) // 응답 데이터를 Map으로 변환 (JSON 형식으로 응답 받기)
-                .doOnTerminate(() -> System.out.println("Request completed"))
-                .block(); // 동기 방식으로 처리
+        setMemoryAsync(chatRoomId).block(); // 동기 방식으로 처리
+    }
+
+    @Override
+    public Mono<Void> setMemoryAsync(long chatRoomId) {
+        return callGuard.guard(AiServerCallGuard.MEMORY, webClient.post()
+                        .uri("/chatbot/setMemory/{chatRoomId}", chatRoomId) // chatRoomId를 URI에 동적으로 삽입
+                        .header("Content-Type", "application/json")
+                        .retrieve()
+                        .bodyToMono(Map.class)) // 응답 데이터를 Map으로 변환 (JSON 형식으로 응답 받기)
+                .then();
     }
 }
 
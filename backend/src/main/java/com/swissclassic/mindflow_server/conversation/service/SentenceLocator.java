@@ -0,0 +1,88 @@
+package com.swissclassic.mindflow_server.conversation.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.swissclassic.mindflow_server.conversation.model.entity.AnswerSentence;
+import com.swissclassic.mindflow_server.conversation.model.entity.ChatLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// sentenceId(마인드맵 노드의 mongo_ref) -> (chat_logs _id, answer_sentences 배열 위치)
+// answer_sentences.sentenceId 멀티키 인덱스로 찾고, 결과는 LRU 캐시에 보관
+// 주제 분리로 같은 sentenceId 가 다른 채팅방에 복사될 수 있으므로 가장 먼저 저장된(_id 가 작은) 원본 위치를 기억함
+@Component
+@Slf4j
+public class SentenceLocator {
+    private static final String SENTENCE_ID = "answer_sentences.sentenceId";
+
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, SentenceLocation> locations;
+
+    public record SentenceLocation(String chatLogId, long chatRoomId, int index) {
+    }
+
+    public SentenceLocator(MongoTemplate mongoTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${chat-log.sentence-locator.max-size:100000}") long maxSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.locations = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, locations, "sentenceLocator");
+    }
+
+    public Optional<SentenceLocation> locate(String sentenceId) {
+        return Optional.ofNullable(locateAll(List.of(sentenceId)).get(sentenceId));
+    }
+
+    // 캐시에 없는 id 만 모아서 한 번에 조회
+    public Map<String, SentenceLocation> locateAll(Collection<String> sentenceIds) {
+        Map<String, SentenceLocation> found = new HashMap<>(locations.getAllPresent(sentenceIds));
+        Set<String> missing = new HashSet<>(sentenceIds);
+        missing.removeAll(found.keySet());
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        Query query = new Query(Criteria.where(SENTENCE_ID).in(missing))
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+        query.fields().include("_id", "chat_room_id", SENTENCE_ID);
+
+        for (ChatLog chatLog : mongoTemplate.find(query, ChatLog.class)) {
+            List<AnswerSentence> sentences = chatLog.getAnswerSentences();
+            if (sentences == null) {
+                continue;
+            }
+            for (int i = 0; i < sentences.size(); i++) {
+                String sentenceId = sentences.get(i).getSentenceId();
+                if (missing.contains(sentenceId) && !found.containsKey(sentenceId)) {
+                    SentenceLocation location = new SentenceLocation(chatLog.getId(), chatLog.getChatRoomId(), i);
+                    found.put(sentenceId, location);
+                    locations.put(sentenceId, location);
+                }
+            }
+        }
+        return found;
+    }
+
+    // 캐시된 위치의 문서가 삭제되었거나 내용이 달라졌을 때
+    public void evict(String sentenceId) {
+        locations.invalidate(sentenceId);
+    }
+}
@@ -1,6 +1,11 @@
 package com.swissclassic.mindflow_server.mindmap.controller;
 
+import com.swissclassic.mindflow_server.mindmap.model.dto.MindMapDelta;
+import com.swissclassic.mindflow_server.mindmap.model.dto.MindMapGraph;
 import com.swissclassic.mindflow_server.mindmap.model.dto.TopicDTO;
+import com.swissclassic.mindflow_server.mindmap.model.dto.TopicDeleteJob;
+import com.swissclassic.mindflow_server.mindmap.model.dto.TopicSeparationJob;
+import com.swissclassic.mindflow_server.mindmap.service.TopicSeparationJobService;
 import com.swissclassic.mindflow_server.mindmap.service.TopicService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -23,12 +28,34 @@ public class TopicController {
     @Autowired
     private TopicService topicService;
 
+    @Autowired
+    private TopicSeparationJobService topicSeparationJobService;
+
     @GetMapping("/{userId}")
     @Operation(summary = "유저 전체 마인드맵 조회", description = "userId 입력하세요")
     public TopicDTO getTopicByUserId(@PathVariable String userId) {
         return topicService.getTopicByUserId(userId);
     }
 
+    @GetMapping("/{userId}/graph")
+    @Operation(summary = "유저 마인드맵 경량 조회",
+            description = "관계를 노드 배열 index 로 반환합니다. chatRoomId 를 주면 해당 채팅방만, content 는 includeContent=true 일 때만 포함")
+    public MindMapGraph getMindMapGraph(@PathVariable String userId,
+                                        @RequestParam(required = false) String chatRoomId,
+                                        @RequestParam(defaultValue = "false") boolean includeContent) {
+        return topicService.getMindMapGraph(userId, chatRoomId, includeContent);
+    }
+
+    @GetMapping("/{userId}/delta")
+    @Operation(summary = "마인드맵 변경분 조회",
+            description = "since 에 이전 응답의 version 을 넣으면 그 이후 추가/수정된 노드와 관계, 삭제 목록만 반환합니다. "
+                    + "since 가 없거나 너무 오래되었으면 full=true 와 함께 전체 마인드맵을 반환")
+    public MindMapDelta getMindMapDelta(@PathVariable String userId,
+                                        @RequestParam(required = false) String chatRoomId,
+                                        @RequestParam(required = false) Long since) {
+        return topicService.getMindMapDelta(userId, chatRoomId, since);
+    }
+
     @GetMapping("/{userId}/{chatRoomId}")
     @Operation(summary = "유저의 해당 채팅방 마인드맵 조회", description = "userId, chatRoomId 입력")
     public TopicDTO getTopicByUserIdAndChatRoom(
@@ -39,23 +66,46 @@ public class TopicController {
     }
 
     @DeleteMapping("/deleteSubTopic/{elementId}")
-    @Operation(summary = "해당 노드와 하위 노드 삭제", description = "노드의 id 를 받아서 해당 branch 삭제")
-    public void deleteSubtopics(@PathVariable String elementId) {
-        topicService.deleteSubtopics(elementId);
+    @Operation(summary = "해당 노드와 하위 노드 삭제",
+            description = "노드의 id 를 받아서 해당 branch 삭제. 하위 노드가 많으면 202 와 함께 백그라운드 삭제 작업을 반환")
+    public ResponseEntity<TopicDeleteJob> deleteSubtopics(@PathVariable String elementId) {
+        TopicDeleteJob job = topicService.deleteSubtopics(elementId);
+        if (job == null) {
+            return ResponseEntity.ok().build();
+        }
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/mindmaps/delete-jobs/{jobId}")
+                .buildAndExpand(job.getJobId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @GetMapping("/delete-jobs/{jobId}")
+    @Operation(summary = "마인드맵 삭제 작업 상태 조회", description = "상태(MARKING/DELETING/DONE)와 삭제한 노드 수")
+    public ResponseEntity<TopicDeleteJob> getDeleteJob(@PathVariable String jobId) {
+        return ResponseEntity.of(topicService.findDeleteJob(jobId));
     }
 
 
     // 주제 분리
     @PostMapping("/seperateTopic/{elementId}/{creatorId}")
     @Operation(summary = "마인드맵 주제 분리",
-            description = "선택한 노드와 자식 노드들을 새로운 주제로 분리합니다.")
-    public ResponseEntity<Map<String, Long>> separateTopic(@PathVariable String elementId,
-                                                           @PathVariable Long creatorId) {
-        Long newChatRoomId = topicService.seperateTopic(elementId, creatorId);
+            description = "선택한 노드와 자식 노드들을 새로운 주제로 분리합니다. 새 채팅방(임시 제목)을 바로 만들어 202 로 반환하고, "
+                    + "대화 복사와 노드 이동, 제목 생성은 백그라운드에서 진행합니다.")
+    public ResponseEntity<TopicSeparationJob> separateTopic(@PathVariable String elementId,
+                                                            @PathVariable Long creatorId) {
+        TopicSeparationJob job = topicSeparationJobService.start(elementId, creatorId);
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/mindmaps/separation-jobs/{jobId}")
+                .buildAndExpand(job.getJobId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
 
-        return ResponseEntity.ok()
-                .body(Map.of("newChatRoomId", newChatRoomId));
+    @GetMapping("/separation-jobs/{jobId}")
+    @Operation(summary = "주제 분리 작업 상태 조회",
+            description = "state(RUNNING/COMPENSATING/DONE/COMPENSATED)와 마지막으로 끝난 단계, 새 채팅방 id 와 제목")
+    public ResponseEntity<TopicSeparationJob> getSeparationJob(@PathVariable String jobId) {
+        return ResponseEntity.of(topicSeparationJobService.findJob(jobId));
     }
 }
-
-
@@ -0,0 +1,25 @@
+package com.swissclassic.mindflow_server.mindmap.model.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 마지막으로 받은 version(Neo4j 서버 시각, epoch millis) 이후의 변경분
+// 클라이언트는 removed* 를 먼저 적용한 뒤 nodes/relationships 를 id 기준으로 덮어씀 (같은 변경이 두 번 와도 결과가 같음)
+// full 이 true 면 변경분이 아니라 전체 마인드맵이므로 기존 상태를 버리고 교체
+@Data
+@NoArgsConstructor
+public class MindMapDelta {
+    private String userId;
+    private String chatRoomId;
+    private Long since;
+    private long version; // 다음 요청의 since 로 그대로 보내면 됨
+    private boolean full;
+    private List<TopicDTO.NodeDTO> nodes = new ArrayList<>();
+    private List<TopicDTO.RelationshipDTO> relationships = new ArrayList<>();
+    private List<String> removedNodeIds = new ArrayList<>(); // 삭제된 노드에 연결된 관계도 함께 제거
+    private List<TopicDTO.RelationshipDTO> removedRelationships = new ArrayList<>();
+    private List<String> removedChatRoomIds = new ArrayList<>(); // 채팅방 마인드맵 전체 삭제
+}
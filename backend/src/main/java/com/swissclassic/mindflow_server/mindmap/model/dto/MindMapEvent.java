@@ -0,0 +1,56 @@
+package com.swissclassic.mindflow_server.mindmap.model.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// 마인드맵 변경 알림 (Redis 채널 -> 각 서버 인스턴스 -> STOMP /topic/mindmap/{userId}[/{chatRoomId}])
+// NODES_ADDED 는 Flask 마인드맵 작업이 직접 Redis 에 발행하고, 나머지는 TopicService 가 커밋 후 발행
+// 알림을 놓쳤을 수 있는 클라이언트(재연결 등)는 /api/mindmaps/{userId}/delta 로 따라잡음
+@Data
+@NoArgsConstructor
+public class MindMapEvent {
+    public enum Type {
+        NODES_ADDED,     // nodes, relationships: 새로 만든 노드와 그 노드에 연결된 관계
+        SUBTREE_DELETED, // elementId 노드와 하위 노드 삭제
+        TOPIC_SEPARATED, // elementId 노드와 하위 노드가 chatRoomId -> newChatRoomId 로 이동
+        MINDMAP_DELETED, // chatRoomId 마인드맵 전체 삭제
+        GRAPH_CHANGED    // 내용을 알 수 없는 변경 (AI 서버가 Redis 채널로 발행), chatRoomId 가 없으면 유저 전체
+    }
+
+    private Type type;
+    private String userId;
+    private String chatRoomId;
+    private String newChatRoomId;
+    private String elementId;
+    private List<TopicDTO.NodeDTO> nodes;
+    private List<TopicDTO.RelationshipDTO> relationships;
+
+    public static MindMapEvent subtreeDeleted(String userId, String chatRoomId, String elementId) {
+        MindMapEvent event = new MindMapEvent();
+        event.setType(Type.SUBTREE_DELETED);
+        event.setUserId(userId);
+        event.setChatRoomId(chatRoomId);
+        event.setElementId(elementId);
+        return event;
+    }
+
+    public static MindMapEvent topicSeparated(String userId, String chatRoomId, String newChatRoomId, String elementId) {
+        MindMapEvent event = new MindMapEvent();
+        event.setType(Type.TOPIC_SEPARATED);
+        event.setUserId(userId);
+        event.setChatRoomId(chatRoomId);
+        event.setNewChatRoomId(newChatRoomId);
+        event.setElementId(elementId);
+        return event;
+    }
+
+    public static MindMapEvent mindMapDeleted(String userId, String chatRoomId) {
+        MindMapEvent event = new MindMapEvent();
+        event.setType(Type.MINDMAP_DELETED);
+        event.setUserId(userId);
+        event.setChatRoomId(chatRoomId);
+        return event;
+    }
+}
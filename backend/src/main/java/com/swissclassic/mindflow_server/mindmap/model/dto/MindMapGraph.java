@@ -0,0 +1,27 @@
+package com.swissclassic.mindflow_server.mindmap.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// 가벼운 마인드맵 응답: 노드는 한 번씩만, 관계는 nodes 배열의 위치(index)로 표현
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MindMapGraph {
+    private String userId;
+    private String chatRoomId;
+    private List<TopicDTO.NodeDTO> nodes;
+    private List<Edge> edges;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Edge {
+        private int source; // nodes 배열의 index
+        private int target;
+        private String type;
+    }
+}
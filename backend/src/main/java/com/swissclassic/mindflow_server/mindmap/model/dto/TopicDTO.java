@@ -24,6 +24,7 @@ public class TopicDTO {
         private String mongoRef;
 //        private String accountId;
         private String chatRoomId;
+        private String chatRoomTitle;
         private LocalDateTime createdAt;
 
         private Long creatorId;
@@ -0,0 +1,25 @@
+package com.swissclassic.mindflow_server.mindmap.model.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 큰 마인드맵 삭제 작업 상태 (Neo4j 의 :TopicDeleteJob 노드에 저장되어 서버가 재시작되어도 이어서 진행)
+@Data
+@NoArgsConstructor
+public class TopicDeleteJob {
+    public enum Scope { SUBTREE, CHAT_ROOM }
+
+    // MARKING: 삭제 대상 표시 중 (표시된 노드는 Topic 라벨이 빠져 조회에서 바로 사라짐)
+    // DELETING: 표시된 노드를 batch 단위로 삭제 중, DONE: 완료
+    public enum State { MARKING, DELETING, DONE }
+
+    private String jobId;
+    private Scope scope;
+    private State state;
+    private String rootElementId;
+    private String chatRoomId;
+    private String creatorId;
+    private long total;
+    private long deleted;
+    private String error; // 마지막 실패 원인 (다음 시작 때 같은 단계부터 다시 시도)
+}
@@ -0,0 +1,28 @@
+package com.swissclassic.mindflow_server.mindmap.model.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 주제 분리 작업 상태 (Neo4j 의 :TopicSeparationJob 노드에 저장)
+// 새 채팅방은 요청 시 임시 제목으로 바로 만들고, 나머지 단계는 백그라운드에서 순서대로 진행
+@Data
+@NoArgsConstructor
+public class TopicSeparationJob {
+    // RUNNING: 단계 진행 중, COMPENSATING: 실패해서 만든 것을 되돌리는 중
+    // DONE: 완료, COMPENSATED: 되돌리기 완료 (새 채팅방 삭제됨)
+    public enum State { RUNNING, COMPENSATING, DONE, COMPENSATED }
+
+    // 마지막으로 끝난 단계 (각 단계는 다시 실행해도 결과가 같음)
+    public enum Step { ROOM_CREATED, SUMMARY_COPIED, CHAT_LOGS_COPIED, GRAPH_MOVED, TITLE_UPDATED }
+
+    private String jobId;
+    private State state;
+    private Step step;
+    private String elementId;
+    private Long oldChatRoomId;
+    private Long newChatRoomId;
+    private Long creatorId;
+    private String mongoRef;
+    private String title; // 임시 제목 (TITLE_UPDATED 이후에는 새로 만든 제목)
+    private String error;
+}
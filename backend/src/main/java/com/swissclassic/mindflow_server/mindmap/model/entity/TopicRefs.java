@@ -9,4 +9,6 @@ import org.springframework.data.neo4j.core.schema.Property;
 public class TopicRefs {
     private String mongo_ref;  // 언더스코어 형식으로 변경
     private String chat_room_id;  // 언더스코어 형식으로 변경
+    private String creator_id;
+    private String title;
 }
\ No newline at end of file
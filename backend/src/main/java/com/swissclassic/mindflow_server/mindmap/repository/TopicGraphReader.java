@@ -0,0 +1,220 @@
+package com.swissclassic.mindflow_server.mindmap.repository;
+
+import com.swissclassic.mindflow_server.mindmap.model.dto.TopicDTO;
+import org.neo4j.driver.AccessMode;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.types.TypeSystem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// 마인드맵 조회 전용: 노드와 관계를 각각 따로 읽고, 레코드를 받는 즉시 DTO 로 변환해서 넘겨줌
+// (노드 x 관계 행을 만든 뒤 collect(DISTINCT) 하던 방식과 달리 content 가 관계 수만큼 복제되지 않음)
+@Repository
+public class TopicGraphReader {
+
+    private static final String NODES_RETURN = """
+            RETURN elementId(n) AS id,
+                   n.title AS title,
+                   CASE WHEN $includeContent THEN n.content END AS content,
+                   n.mongo_ref AS mongoRef,
+                   n.chat_room_id AS chatRoomId,
+                   n.chat_room_title AS chatRoomTitle,
+                   n.created_at AS createdAt
+            """;
+
+    private static final String NODES = """
+            MATCH (n:Topic)
+            WHERE %s
+            """ + NODES_RETURN;
+
+    private static final String EDGES = """
+            MATCH (n:Topic)-[r]->(m:Topic)
+            WHERE %s
+            RETURN elementId(n) AS source, elementId(m) AS target, type(r) AS type
+            """;
+
+    // 변경분 조회: created_at / updated_at 각각 (creator_id, 시각) 복합 인덱스를 타도록 UNION 으로 나눔
+    private static final String CHANGED_NODES = """
+            CALL {
+                MATCH (n:Topic) WHERE n.creator_id = $userId AND n.created_at >= $since RETURN n
+                UNION
+                MATCH (n:Topic) WHERE n.creator_id = $userId AND n.updated_at >= $since RETURN n
+            }
+            WITH n WHERE $chatRoomId IS NULL OR n.chat_room_id = $chatRoomId
+            """;
+
+    // 관계에는 시각이 없으므로 바뀐 노드에 붙은 관계를 다시 보냄 (새 관계는 항상 새로 만든 노드에 연결됨)
+    private static final String CHANGED_EDGES = CHANGED_NODES + """
+            MATCH (n)-[r]-(:Topic)
+            WITH DISTINCT r, startNode(r) AS a, endNode(r) AS b
+            WHERE $chatRoomId IS NULL OR (a.chat_room_id = $chatRoomId AND b.chat_room_id = $chatRoomId)
+            RETURN elementId(a) AS source, elementId(b) AS target, type(r) AS type
+            """;
+
+    private static final String TOMBSTONES = """
+            MATCH (t:TopicTombstone)
+            WHERE t.creator_id = $userId AND t.deleted_at >= $since
+              AND ($chatRoomId IS NULL OR t.chat_room_id = $chatRoomId)
+            RETURN t.kind AS kind, t.element_id AS elementId, t.source AS source, t.target AS target,
+                   t.type AS type, t.chat_room_id AS chatRoomId
+            ORDER BY t.deleted_at
+            """;
+
+    private static final String BY_USER = "n.creator_id = $userId";
+    private static final String BY_USER_AND_ROOM = "n.creator_id = $userId AND n.chat_room_id = $chatRoomId";
+
+    private final Driver driver;
+    private final String database;
+
+    public interface EdgeConsumer {
+        void accept(String source, String target, String type);
+    }
+
+    // kind: node(삭제), moved(주제 분리로 다른 채팅방으로 이동), edge(관계 삭제), room(채팅방 마인드맵 전체 삭제)
+    public record Tombstone(String kind, String elementId, String source, String target, String type, String chatRoomId) {
+    }
+
+    public TopicGraphReader(Driver driver, @Value("${spring.neo4j.database:mindmap}") String database) {
+        this.driver = driver;
+        this.database = database;
+    }
+
+    // chatRoomId 가 null 이면 유저 전체 마인드맵
+    public void read(String userId,
+                     String chatRoomId,
+                     boolean includeContent,
+                     Consumer<TopicDTO.NodeDTO> nodeConsumer,
+                     EdgeConsumer edgeConsumer) {
+        String filter = chatRoomId == null ? BY_USER : BY_USER_AND_ROOM;
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("userId", userId);
+        parameters.put("chatRoomId", chatRoomId);
+        parameters.put("includeContent", includeContent);
+
+        try (Session session = readSession()) {
+            session.executeRead(tx -> {
+                Result nodes = tx.run(NODES.formatted(filter), parameters);
+                while (nodes.hasNext()) {
+                    nodeConsumer.accept(toNode(nodes.next()));
+                }
+                readEdges(tx.run(EDGES.formatted(filter), parameters), edgeConsumer);
+                return null;
+            });
+        }
+    }
+
+    // Neo4j 서버 시각 (created_at / updated_at / deleted_at 과 같은 시계)
+    public long currentVersion() {
+        try (Session session = readSession()) {
+            return session.executeRead(tx -> tx.run("RETURN datetime().epochMillis AS version")
+                    .single().get("version").asLong());
+        }
+    }
+
+    // sinceMillis 이후 추가/수정된 노드, 그 노드에 붙은 관계, 삭제 기록을 한 읽기 트랜잭션에서 조회
+    public void readChanges(String userId,
+                            String chatRoomId,
+                            long sinceMillis,
+                            boolean includeContent,
+                            Consumer<TopicDTO.NodeDTO> nodeConsumer,
+                            EdgeConsumer edgeConsumer,
+                            Consumer<Tombstone> tombstoneConsumer) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("userId", userId);
+        parameters.put("chatRoomId", chatRoomId);
+        parameters.put("includeContent", includeContent);
+        parameters.put("since", Instant.ofEpochMilli(sinceMillis).atZone(ZoneOffset.UTC));
+
+        try (Session session = readSession()) {
+            session.executeRead(tx -> {
+                Result tombstones = tx.run(TOMBSTONES, parameters);
+                while (tombstones.hasNext()) {
+                    Record t = tombstones.next();
+                    tombstoneConsumer.accept(new Tombstone(
+                            t.get("kind").asString(),
+                            t.get("elementId").asString(null),
+                            t.get("source").asString(null),
+                            t.get("target").asString(null),
+                            t.get("type").asString(null),
+                            asText(t.get("chatRoomId"))));
+                }
+                Result nodes = tx.run(CHANGED_NODES + NODES_RETURN, parameters);
+                while (nodes.hasNext()) {
+                    nodeConsumer.accept(toNode(nodes.next()));
+                }
+                readEdges(tx.run(CHANGED_EDGES, parameters), edgeConsumer);
+                return null;
+            });
+        }
+    }
+
+    private Session readSession() {
+        return driver.session(SessionConfig.builder()
+                .withDatabase(database)
+                .withDefaultAccessMode(AccessMode.READ)
+                .build());
+    }
+
+    private static void readEdges(Result edges, EdgeConsumer edgeConsumer) {
+        while (edges.hasNext()) {
+            Record edge = edges.next();
+            edgeConsumer.accept(edge.get("source").asString(),
+                    edge.get("target").asString(),
+                    edge.get("type").asString());
+        }
+    }
+
+    private static TopicDTO.NodeDTO toNode(Record record) {
+        TopicDTO.NodeDTO node = new TopicDTO.NodeDTO();
+        node.setId(record.get("id").asString());
+        node.setTitle(record.get("title").asString(null));
+        node.setContent(record.get("content").asString(null));
+        node.setMongoRef(record.get("mongoRef").asString(null));
+        node.setChatRoomId(asText(record.get("chatRoomId")));
+        node.setChatRoomTitle(record.get("chatRoomTitle").asString(null));
+        node.setCreatedAt(toLocalDateTime(record.get("createdAt")));
+        return node;
+    }
+
+    // Flask 가 만든 노드는 chat_room_id 를 문자열로 저장하지만 숫자로 들어간 경우도 허용
+    private static String asText(org.neo4j.driver.Value value) {
+        if (value.isNull()) {
+            return null;
+        }
+        return value.hasType(TypeSystem.getDefault().STRING())
+                ? value.asString()
+                : String.valueOf(value.asObject());
+    }
+
+    // created_at 은 datetime() (ZonedDateTime) 으로 저장되어 있음
+    private static LocalDateTime toLocalDateTime(org.neo4j.driver.Value value) {
+        if (value.isNull()) {
+            return null;
+        }
+        Object raw = value.asObject();
+        if (raw instanceof ZonedDateTime zoned) {
+            return zoned.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        }
+        if (raw instanceof OffsetDateTime offset) {
+            return offset.atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        }
+        if (raw instanceof LocalDateTime local) {
+            return local;
+        }
+        return null;
+    }
+}
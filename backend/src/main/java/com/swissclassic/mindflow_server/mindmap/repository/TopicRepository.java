@@ -16,72 +16,40 @@ import java.util.Map;
 @Repository
 public interface TopicRepository extends Neo4jRepository<Topic, String> {
 
+    // 마인드맵 조회는 TopicGraphReader 사용 (노드/관계를 따로 읽어서 DTO 로 바로 변환)
+
+    // 삭제 전 하위 트리 크기 확인 (limit 개까지만 셈, 크면 TopicDeleteJobService 로 나눠서 삭제)
     @Query("""
-        MATCH (n:Topic)
-        WHERE n.creator_id = $userId
-        OPTIONAL MATCH (n)-[r]->(m:Topic)
-        RETURN {
-            userId: $userId, 
-            nodes: collect(DISTINCT {
-                id: elementId(n),
-                title: n.title,
-                content: n.content,
-                mongoRef: n.mongo_ref,
-                accountId: n.account_id,
-                chatRoomId: n.chat_room_id,
-                chatRoomTitle: n.chat_room_title,
-                createdAt: n.created_at
-            }),
-            relationships: collect(
-                CASE 
-                    WHEN r IS NOT NULL 
-                    THEN {
-                        source: elementId(startNode(r)),
-                        target: elementId(endNode(r)),
-                        type: type(r)
-                    }
-                    ELSE null
-                END
-            )
-        } AS result
-    """)
-    List<Map<String, Object>> getTopicByUserId(String userId);
+            MATCH (n)-[:HAS_SUBTOPIC*0..]->(m:Topic)
+            WHERE elementId(n) = $elementId
+            WITH DISTINCT m LIMIT $limit
+            RETURN count(m)
+            """)
+    long countSubtree(String elementId, int limit);
 
     @Query("""
-    MATCH (n:Topic)
-    WHERE n.creator_id = $userId AND n.chat_room_id = $chatRoomId
-    OPTIONAL MATCH (n)-[r]->(m:Topic)
-    RETURN {
-        userId: $userId, 
-        chatRoomId: $chatRoomId,
-        nodes: collect(DISTINCT {
-            id: elementId(n),
-            title: n.title,
-            content: n.content,
-            mongoRef: n.mongo_ref,
-            accountId: n.account_id,
-            chatRoomId: n.chat_room_id,
-            chatRoomTitle: n.chat_room_title,
-            createdAt: n.created_at
-        }),
-        relationships: collect(
-            CASE 
-                WHEN r IS NOT NULL 
-                THEN {
-                    source: elementId(startNode(r)),
-                    target: elementId(endNode(r)),
-                    type: type(r)
-                }
-                ELSE null
-            END
-        )
-    } AS result
-""")
-    List<Map<String, Object>> getMindMapByUserAndChatRoom(String userId, String chatRoomId);
+            MATCH (n:Topic)
+            WHERE n.chat_room_id = toString($chatRoomId)
+            WITH n LIMIT $limit
+            RETURN count(n)
+            """)
+    long countByChatRoomId(long chatRoomId, int limit);
 
     @Query("""
-            MATCH (n)-[r:HAS_SUBTOPIC*0..]->(m) 
-            WHERE elementId(n) = $elementId 
+            MATCH (n:Topic)
+            WHERE n.chat_room_id = toString($chatRoomId)
+            RETURN n.creator_id
+            LIMIT 1
+            """)
+    String findCreatorIdByChatRoomId(long chatRoomId);
+
+    // 삭제한 노드마다 TopicTombstone 을 남겨서 변경분(delta) 조회에서 삭제를 알 수 있게 함
+    @Query("""
+            MATCH (n)-[r:HAS_SUBTOPIC*0..]->(m)
+            WHERE elementId(n) = $elementId
+            WITH DISTINCT m
+            CREATE (:TopicTombstone {kind: 'node', element_id: elementId(m), creator_id: m.creator_id,
+                                     chat_room_id: m.chat_room_id, deleted_at: datetime()})
             DETACH DELETE m
             """)
     void deleteSubtopicsByElementId(String elementId);
@@ -89,31 +57,48 @@ public interface TopicRepository extends Neo4jRepository<Topic, String> {
 
     // 주제 분리
 
-    // 선택한 노드의 mongo_ref와 chatRoomId 조회
+    // 선택한 노드의 mongo_ref와 chatRoomId, creatorId, title 조회
     @Query("""
         MATCH (n:Topic)
         WHERE elementId(n) = $elementId
-        RETURN n.mongo_ref as mongo_ref, n.chat_room_id as chat_room_id
+        RETURN n.mongo_ref as mongo_ref, n.chat_room_id as chat_room_id, n.creator_id as creator_id, n.title as title
     """)
     TopicRefs findMongoRefAndChatRoomId(String elementId);
 
 
+    // 주제 분리 시 새 채팅방으로 복사할 대화 기록 (하위 트리 전체의 mongo_ref)
+    @Query("""
+        MATCH (n)-[:HAS_SUBTOPIC*0..]->(m:Topic)
+        WHERE elementId(n) = $elementId AND m.mongo_ref IS NOT NULL
+        RETURN DISTINCT m.mongo_ref
+    """)
+    List<String> findSubtreeMongoRefs(String elementId);
+
     // 선택한 노드와 그 하위 노드들의 chatRoomId 업데이트 및 부모와의 관계 제거
+    // 삭제한 관계는 edge, 옮겨간 노드는 원래 채팅방 기준 moved 로 TopicTombstone 을 남기고 updated_at 갱신
+    // 이미 옮겨간 노드는 건너뛰므로 주제 분리 작업이 다시 실행해도 결과가 같음
     @Query("""
         MATCH (n:Topic)
         WHERE elementId(n) = $elementId
         // 부모 노드와의 관계 찾기
         OPTIONAL MATCH (parent:Topic)-[r]->(n)
+        WITH n, collect(r) as parentRelations
         // 하위 노드들 찾기 (n 포함)
-        WITH n, r, parent
         MATCH (n)-[*0..]->(descendant:Topic)
-        WITH COLLECT(descendant) as nodesToUpdate, r
+        WITH parentRelations, COLLECT(DISTINCT descendant) as nodesToUpdate
         // 1. 부모와의 관계 삭제
-        DELETE r
+        FOREACH (rel IN parentRelations |
+            CREATE (:TopicTombstone {kind: 'edge', source: elementId(startNode(rel)), target: elementId(endNode(rel)),
+                                     type: type(rel), creator_id: endNode(rel).creator_id,
+                                     chat_room_id: startNode(rel).chat_room_id, deleted_at: datetime()})
+            DELETE rel)
         // 2. 모든 연관 노드의 chat_room_id 업데이트
         WITH nodesToUpdate
         UNWIND nodesToUpdate as node
-        SET node.chat_room_id = $newChatRoomId
+        WITH node WHERE node.chat_room_id <> $newChatRoomId
+        CREATE (:TopicTombstone {kind: 'moved', element_id: elementId(node), creator_id: node.creator_id,
+                                 chat_room_id: node.chat_room_id, deleted_at: datetime()})
+        SET node.chat_room_id = $newChatRoomId, node.updated_at = datetime()
         RETURN COUNT(node) as updatedNodes
     """)
     void separateTopicAndUpdateChatRoom(String elementId, String newChatRoomId);
@@ -125,10 +110,13 @@ public interface TopicRepository extends Neo4jRepository<Topic, String> {
     @Query("""
             MATCH (n:Topic)
             WHERE n.chat_room_id = toString($chatRoomId)
-            WITH n
-            OPTIONAL MATCH (n)-[r]-()
-            DELETE r, n
+            WITH collect(n) AS nodes
+            FOREACH (_ IN CASE WHEN size(nodes) > 0 THEN [1] ELSE [] END |
+                CREATE (:TopicTombstone {kind: 'room', chat_room_id: toString($chatRoomId),
+                                         creator_id: nodes[0].creator_id, deleted_at: datetime()}))
+            FOREACH (n IN nodes | DETACH DELETE n)
+            RETURN nodes[0].creator_id AS creatorId
             """)
-    void deleteMindMapByChatRoomId(long chatRoomId);
+    String deleteMindMapByChatRoomId(long chatRoomId); // 삭제한 마인드맵의 creator_id (노드가 없었으면 null)
 
 }
@@ -0,0 +1,216 @@
+package com.swissclassic.mindflow_server.mindmap.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.swissclassic.mindflow_server.mindmap.model.dto.MindMapEvent;
+import com.swissclassic.mindflow_server.mindmap.model.dto.TopicDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// 조립된 마인드맵(TopicDTO) 캐시: L1 Caffeine (무게 기준 제거) + 선택적으로 L2 Redis
+// 키: {userId}:{chatRoomId}, 유저 전체 마인드맵은 {userId}:*
+// 무효화는 MindMapEvent 기준 (이 인스턴스에서 발행할 때 + MindMapEventRelay 가 Redis 채널에서 받을 때)
+// L2 는 유저별 버전(mindmap:cache-version:{userId})을 두고, 조회 시작 때 읽은 버전이 그대로일 때만 저장
+// (다른 인스턴스가 그 사이 무효화했다면 오래된 값을 Redis 에 다시 쓰지 않음)
+@Component
+@Slf4j
+public class MindMapCache {
+    private static final String ALL_ROOMS = "*";
+    private static final String REDIS_PREFIX = "mindmap:cache:";
+    private static final String VERSION_PREFIX = "mindmap:cache-version:";
+    private static final String NO_VERSION = "0";
+
+    // KEYS: version, cache / ARGV: 조회 시작 때 읽은 버전, 값, ttl(ms)
+    private static final RedisScript<Long> SET_IF_VERSION = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[1]) or '0') ~= ARGV[1] then return 0 end "
+                    + "redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3]) "
+                    + "return 1",
+            Long.class);
+
+    private final Cache<String, TopicDTO> cache;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean redisEnabled;
+    private final Duration redisTtl;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+
+    // 무효화될 때마다 증가: 조회하는 동안 무효화가 있었으면 읽은 값(이미 오래된 값일 수 있음)을 캐시에 넣지 않음
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public MindMapCache(StringRedisTemplate redisTemplate,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry,
+                        @Value("${mindmap.cache.max-weight:64MB}") DataSize maxWeight,
+                        @Value("${mindmap.cache.expire-after-write:5m}") Duration expireAfterWrite,
+                        @Value("${mindmap.cache.redis.enabled:false}") boolean redisEnabled,
+                        @Value("${mindmap.cache.redis.ttl:10m}") Duration redisTtl) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisEnabled = redisEnabled;
+        this.redisTtl = redisTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight.toBytes())
+                .weigher((String key, TopicDTO value) -> estimateSize(value))
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "mindmap");
+        this.redisHits = meterRegistry.counter("mindmap.cache.redis", "result", "hit");
+        this.redisMisses = meterRegistry.counter("mindmap.cache.redis", "result", "miss");
+    }
+
+    public TopicDTO get(String userId, String chatRoomId, Supplier<TopicDTO> loader) {
+        String key = key(userId, chatRoomId);
+        TopicDTO cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = invalidations.get();
+        RedisEntry entry = redisEnabled ? readRedis(userId, key) : RedisEntry.MISSING;
+        TopicDTO loaded = entry.value();
+        if (loaded == null) {
+            loaded = loader.get();
+        }
+        if (invalidations.get() == generation) {
+            cache.put(key, loaded);
+            if (entry.value() == null && entry.version() != null) {
+                writeRedis(userId, key, entry.version(), loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // version 이 null 이면 Redis 를 읽지 못한 것이므로 L2 에 쓰지 않음
+    private record RedisEntry(String version, TopicDTO value) {
+        static final RedisEntry MISSING = new RedisEntry(null, null);
+    }
+
+    // 채팅방 마인드맵이 바뀌면 그 채팅방과 유저 전체 마인드맵이 함께 바뀜
+    public void invalidate(MindMapEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        bumpVersion(event.getUserId());
+        if (event.getChatRoomId() == null) {
+            invalidateUser(event.getUserId());
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        keys.add(key(event.getUserId(), null));
+        keys.add(key(event.getUserId(), event.getChatRoomId()));
+        if (event.getNewChatRoomId() != null) {
+            keys.add(key(event.getUserId(), event.getNewChatRoomId()));
+        }
+        cache.invalidateAll(keys);
+        if (redisEnabled) {
+            try {
+                redisTemplate.delete(keys.stream().map(k -> REDIS_PREFIX + k).toList());
+            } catch (Exception e) {
+                log.warn("마인드맵 Redis 캐시 삭제 실패: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void invalidateUser(String userId) {
+        String prefix = userId + ":";
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        if (!redisEnabled) {
+            return;
+        }
+        ScanOptions options = ScanOptions.scanOptions().match(REDIS_PREFIX + prefix + "*").count(100).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            List<String> found = new ArrayList<>();
+            keys.forEachRemaining(found::add);
+            if (!found.isEmpty()) {
+                redisTemplate.delete(found);
+            }
+        } catch (Exception e) {
+            log.warn("마인드맵 Redis 캐시 삭제 실패 (userId={}): {}", userId, e.getMessage());
+        }
+    }
+
+    // 버전과 캐시 값을 한 번에 읽음
+    private RedisEntry readRedis(String userId, String key) {
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(List.of(VERSION_PREFIX + userId, REDIS_PREFIX + key));
+            if (values == null) {
+                return RedisEntry.MISSING;
+            }
+            String version = values.get(0) == null ? NO_VERSION : values.get(0);
+            String json = values.get(1);
+            if (json == null) {
+                redisMisses.increment();
+                return new RedisEntry(version, null);
+            }
+            redisHits.increment();
+            return new RedisEntry(version, objectMapper.readValue(json, TopicDTO.class));
+        } catch (Exception e) {
+            log.warn("마인드맵 Redis 캐시 조회 실패: {}", e.getMessage());
+            return RedisEntry.MISSING;
+        }
+    }
+
+    private void writeRedis(String userId, String key, String version, TopicDTO value) {
+        try {
+            redisTemplate.execute(SET_IF_VERSION, List.of(VERSION_PREFIX + userId, REDIS_PREFIX + key),
+                    version, objectMapper.writeValueAsString(value), String.valueOf(redisTtl.toMillis()));
+        } catch (Exception e) {
+            log.warn("마인드맵 Redis 캐시 저장 실패: {}", e.getMessage());
+        }
+    }
+
+    // 캐시 삭제보다 먼저 올려서, 삭제 전에 버전을 읽은 조회도 저장하지 못하게 함
+    private void bumpVersion(String userId) {
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().increment(VERSION_PREFIX + userId);
+        } catch (Exception e) {
+            log.warn("마인드맵 Redis 캐시 버전 증가 실패 (userId={}): {}", userId, e.getMessage());
+        }
+    }
+
+    private static String key(String userId, String chatRoomId) {
+        return userId + ":" + (chatRoomId == null ? ALL_ROOMS : chatRoomId);
+    }
+
+    // 대략적인 메모리 크기 (문자열은 글자당 2바이트로 계산)
+    private static int estimateSize(TopicDTO dto) {
+        long size = 128;
+        if (dto.getNodes() != null) {
+            for (TopicDTO.NodeDTO node : dto.getNodes()) {
+                size += 160 + 2L * (length(node.getId()) + length(node.getTitle()) + length(node.getContent())
+                        + length(node.getMongoRef()) + length(node.getChatRoomId()) + length(node.getChatRoomTitle()));
+            }
+        }
+        if (dto.getRelationships() != null) {
+            size += 120L * dto.getRelationships().size();
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
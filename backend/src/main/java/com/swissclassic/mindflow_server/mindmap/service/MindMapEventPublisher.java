@@ -0,0 +1,60 @@
+package com.swissclassic.mindflow_server.mindmap.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swissclassic.mindflow_server.mindmap.model.dto.MindMapEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// 마인드맵 변경 이벤트를 Redis 채널로 발행 (모든 서버 인스턴스의 MindMapEventRelay 가 받아서 STOMP 로 전달)
+// 트랜잭션 안에서 호출되면 커밋된 뒤에 발행하므로, 알림을 받은 클라이언트가 바로 조회해도 변경이 보임
+@Component
+@Slf4j
+public class MindMapEventPublisher {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MindMapCache mindMapCache;
+    private final String channel;
+
+    public MindMapEventPublisher(ApplicationEventPublisher applicationEventPublisher,
+                                 ReactiveStringRedisTemplate redisTemplate,
+                                 ObjectMapper objectMapper,
+                                 MindMapCache mindMapCache,
+                                 @Value("${mindmap.events.channel:mindmap:events}") String channel) {
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.mindMapCache = mindMapCache;
+        this.channel = channel;
+    }
+
+    public void publish(MindMapEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        applicationEventPublisher.publishEvent(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void sendAfterCommit(MindMapEvent event) {
+        // Redis 가 내려가 있어도 이 인스턴스의 캐시는 바로 무효화 (다른 인스턴스는 relay 에서)
+        mindMapCache.invalidate(event);
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.error("마인드맵 이벤트 직렬화 실패: {}", event, e);
+            return;
+        }
+        // 알림 실패가 요청 처리에 영향을 주지 않도록 기다리지 않음
+        redisTemplate.convertAndSend(channel, payload)
+                .subscribe(receivers -> log.debug("마인드맵 이벤트 {} 발행 (구독 인스턴스 {}개)", event.getType(), receivers),
+                        e -> log.warn("마인드맵 이벤트 발행 실패: {}", e.getMessage()));
+    }
+}
@@ -0,0 +1,89 @@
+package com.swissclassic.mindflow_server.mindmap.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swissclassic.mindflow_server.mindmap.model.dto.MindMapEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+// Redis 채널의 마인드맵 이벤트로 이 인스턴스의 마인드맵 캐시를 무효화하고, 연결된 STOMP 구독자에게 전달
+// 구독 경로: /topic/mindmap/{userId} (유저 전체), /topic/mindmap/{userId}/{chatRoomId} (채팅방)
+@Component
+@Slf4j
+public class MindMapEventRelay {
+    public static final String DESTINATION_PREFIX = "/topic/mindmap/";
+
+    private final ReactiveRedisConnectionFactory connectionFactory;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final MindMapCache mindMapCache;
+    private final String channel;
+
+    private ReactiveRedisMessageListenerContainer container;
+    private Disposable subscription;
+
+    public MindMapEventRelay(ReactiveRedisConnectionFactory connectionFactory,
+                             SimpMessagingTemplate messagingTemplate,
+                             ObjectMapper objectMapper,
+                             MindMapCache mindMapCache,
+                             @Value("${mindmap.events.channel:mindmap:events}") String channel) {
+        this.connectionFactory = connectionFactory;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.mindMapCache = mindMapCache;
+        this.channel = channel;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        container = new ReactiveRedisMessageListenerContainer(connectionFactory);
+        // Redis 연결이 끊기면 다시 구독 (그 사이 이벤트는 클라이언트가 delta 조회로 따라잡음)
+        subscription = container.receive(ChannelTopic.of(channel))
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnError(e -> log.warn("마인드맵 이벤트 채널 구독 오류, 재구독 시도: {}", e.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(this::relay);
+    }
+
+    private void relay(String payload) {
+        try {
+            MindMapEvent event = objectMapper.readValue(payload, MindMapEvent.class);
+            if (event.getUserId() == null) {
+                return;
+            }
+            mindMapCache.invalidate(event);
+            String userDestination = DESTINATION_PREFIX + event.getUserId();
+            messagingTemplate.convertAndSend(userDestination, event);
+            if (event.getChatRoomId() != null) {
+                messagingTemplate.convertAndSend(userDestination + "/" + event.getChatRoomId(), event);
+            }
+            if (event.getNewChatRoomId() != null) {
+                messagingTemplate.convertAndSend(userDestination + "/" + event.getNewChatRoomId(), event);
+            }
+        } catch (Exception e) {
+            log.warn("마인드맵 이벤트 전달 실패: {}", payload, e);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (container != null) {
+            container.destroy();
+        }
+    }
+}
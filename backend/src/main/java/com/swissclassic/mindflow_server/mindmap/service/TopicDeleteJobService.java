@@ -0,0 +1,299 @@
+package com.swissclassic.mindflow_server.mindmap.service;
+
+import com.swissclassic.mindflow_server.mindmap.model.dto.MindMapEvent;
+import com.swissclassic.mindflow_server.mindmap.model.dto.TopicDeleteJob;
+import lombok.extern.slf4j.Slf4j;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.types.Node;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+// 큰 마인드맵(하위 트리 / 채팅방 전체) 삭제를 작은 트랜잭션으로 나눠서 백그라운드로 처리
+// 1. MARKING : 대상 노드의 Topic 라벨을 batch-size 개씩 TopicPendingDelete 로 바꾸고 delete_job_id 표시 (조회에서 바로 사라짐)
+// 2. DELETING: 표시된 노드를 batch-size 개씩 DETACH DELETE, 진행 수는 같은 트랜잭션에서 작업 노드에 기록
+// 작업 상태는 :TopicDeleteJob 노드에 있으므로 중간에 서버가 내려가도 이어서 진행 (lease 로 인스턴스 간 중복 실행 방지)
+// 실패했거나 lease 가 끝난 작업, 대기열이 가득 차서 시작하지 못한 작업은 retry-interval 마다 다시 시도
+@Service
+@Slf4j
+public class TopicDeleteJobService {
+
+    private static final String CREATE_JOB = """
+            CREATE (j:TopicDeleteJob {job_id: $jobId, scope: $scope, state: 'MARKING',
+                                      root_element_id: $rootElementId, chat_room_id: $chatRoomId, creator_id: $creatorId,
+                                      total: 0, deleted: 0, created_at: datetime(), updated_at: datetime()})
+            WITH j WHERE $scope = 'CHAT_ROOM'
+            CREATE (:TopicTombstone {kind: 'room', chat_room_id: $chatRoomId, creator_id: $creatorId, deleted_at: datetime()})
+            """;
+
+    // 먼저 작업 노드에 쓰기 lock 을 잡은 뒤 조건을 확인하므로 여러 인스턴스가 동시에 claim 해도 한 곳만 성공
+    private static final String CLAIM_JOB = """
+            MATCH (j:TopicDeleteJob {job_id: $jobId})
+            SET j._lock = true
+            REMOVE j._lock
+            WITH j
+            WHERE j.state <> 'DONE' AND (j.lease_until IS NULL OR j.lease_until < datetime())
+            SET j.lease_until = datetime() + duration({milliseconds: $lease})
+            RETURN j
+            """;
+
+    private static final String FIND_JOB = "MATCH (j:TopicDeleteJob {job_id: $jobId}) RETURN j";
+
+    // 실패(error), lease 만료, 또는 retry-interval 이 지나도록 시작되지 않은 작업
+    private static final String RETRYABLE_JOBS = """
+            MATCH (j:TopicDeleteJob) WHERE j.state <> 'DONE'
+              AND (j.lease_until IS NULL OR j.lease_until < datetime())
+              AND (j.error IS NOT NULL OR j.lease_until IS NOT NULL
+                   OR j.updated_at < datetime() - duration({milliseconds: $retryInterval}))
+            RETURN j.job_id AS jobId
+            """;
+
+    // 표시가 끝난 노드는 Topic 라벨이 없으므로 다시 실행해도 남은 노드만 표시됨 (중간 경로는 라벨 없이 따라감)
+    // batch 마다 같은 트랜잭션에서 lease 를 연장 (큰 하위 트리를 표시하는 동안 다른 인스턴스가 이어받지 않도록)
+    private static final String MARK_SUBTREE_BATCH = """
+            MATCH (root) WHERE elementId(root) = $rootElementId
+            MATCH (root)-[:HAS_SUBTOPIC*0..]->(m:Topic)
+            WITH DISTINCT m LIMIT $batchSize
+            CREATE (:TopicTombstone {kind: 'node', element_id: elementId(m), creator_id: m.creator_id,
+                                     chat_room_id: m.chat_room_id, deleted_at: datetime()})
+            REMOVE m:Topic
+            SET m:TopicPendingDelete, m.delete_job_id = $jobId
+            WITH count(m) AS marked
+            MATCH (j:TopicDeleteJob {job_id: $jobId})
+            SET j.lease_until = datetime() + duration({milliseconds: $lease}), j.updated_at = datetime()
+            RETURN marked
+            """;
+
+    private static final String MARK_CHAT_ROOM_BATCH = """
+            MATCH (m:Topic) WHERE m.chat_room_id = $chatRoomId
+            WITH m LIMIT $batchSize
+            REMOVE m:Topic
+            SET m:TopicPendingDelete, m.delete_job_id = $jobId
+            WITH count(m) AS marked
+            MATCH (j:TopicDeleteJob {job_id: $jobId})
+            SET j.lease_until = datetime() + duration({milliseconds: $lease}), j.updated_at = datetime()
+            RETURN marked
+            """;
+
+    private static final String START_DELETING = """
+            MATCH (j:TopicDeleteJob {job_id: $jobId})
+            SET j.state = 'DELETING',
+                j.total = j.deleted + COUNT { MATCH (m:TopicPendingDelete {delete_job_id: $jobId}) },
+                j.updated_at = datetime()
+            """;
+
+    private static final String DELETE_BATCH = """
+            MATCH (m:TopicPendingDelete {delete_job_id: $jobId})
+            WITH m LIMIT $batchSize
+            DETACH DELETE m
+            WITH count(*) AS deleted
+            MATCH (j:TopicDeleteJob {job_id: $jobId})
+            SET j.deleted = j.deleted + deleted,
+                j.lease_until = datetime() + duration({milliseconds: $lease}),
+                j.updated_at = datetime()
+            RETURN deleted
+            """;
+
+    private static final String FINISH_JOB = """
+            MATCH (j:TopicDeleteJob {job_id: $jobId})
+            SET j.state = 'DONE', j.error = null, j.lease_until = null, j.updated_at = datetime()
+            """;
+
+    // 상태는 그대로 두고 lease 만 풀어서 다음 재시도 때 같은 단계부터 다시 시도
+    private static final String FAIL_JOB = """
+            MATCH (j:TopicDeleteJob {job_id: $jobId})
+            SET j.error = $error, j.lease_until = null, j.updated_at = datetime()
+            """;
+
+    private final Driver driver;
+    private final String database;
+    private final TaskExecutor executor;
+    private final MindMapEventPublisher mindMapEventPublisher;
+
+    @Value("${mindmap.delete.batch-size:1000}")
+    private int batchSize;
+
+    // 이보다 노드가 많으면 백그라운드 작업으로 삭제
+    @Value("${mindmap.delete.async-threshold:2000}")
+    private int asyncThreshold;
+
+    @Value("${mindmap.delete.lease:5m}")
+    private Duration lease;
+
+    @Value("${mindmap.delete.retry-interval:1m}")
+    private Duration retryInterval;
+
+    public TopicDeleteJobService(Driver driver,
+                                 @Value("${spring.neo4j.database:mindmap}") String database,
+                                 @Qualifier("mindmapJobExecutor") TaskExecutor executor,
+                                 MindMapEventPublisher mindMapEventPublisher) {
+        this.driver = driver;
+        this.database = database;
+        this.executor = executor;
+        this.mindMapEventPublisher = mindMapEventPublisher;
+    }
+
+    public boolean exceedsThreshold(long nodeCount) {
+        return nodeCount > asyncThreshold;
+    }
+
+    // 조회할 때 threshold + 1 개까지만 세면 충분
+    public int countLimit() {
+        return asyncThreshold + 1;
+    }
+
+    public TopicDeleteJob startSubtreeDelete(String rootElementId, String chatRoomId, String creatorId) {
+        return start(TopicDeleteJob.Scope.SUBTREE, rootElementId, chatRoomId, creatorId);
+    }
+
+    public TopicDeleteJob startChatRoomDelete(String chatRoomId, String creatorId) {
+        return start(TopicDeleteJob.Scope.CHAT_ROOM, null, chatRoomId, creatorId);
+    }
+
+    public Optional<TopicDeleteJob> findJob(String jobId) {
+        try (Session session = session()) {
+            List<Record> records = session.run(FIND_JOB, Map.of("jobId", jobId)).list();
+            return records.isEmpty() ? Optional.empty() : Optional.of(toJob(records.get(0).get("j").asNode()));
+        }
+    }
+
+    // 시작 시와 retry-interval 마다 끝나지 않은 작업 이어서 진행 (다른 인스턴스가 lease 를 잡고 있으면 건너뜀)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${mindmap.delete.retry-interval:1m}",
+            fixedDelayString = "${mindmap.delete.retry-interval:1m}")
+    public void resumeUnfinishedJobs() {
+        List<String> jobIds;
+        try (Session session = session()) {
+            jobIds = session.run(RETRYABLE_JOBS, Map.of("retryInterval", retryInterval.toMillis()))
+                    .list(record -> record.get("jobId").asString());
+        } catch (Exception e) {
+            log.error("미완료 마인드맵 삭제 작업 조회 실패", e);
+            return;
+        }
+        for (String jobId : jobIds) {
+            log.info("미완료 마인드맵 삭제 작업 재개: {}", jobId);
+            try {
+                executor.execute(() -> run(jobId));
+            } catch (RejectedExecutionException e) {
+                log.warn("마인드맵 삭제 작업 대기열이 가득 참, 나머지는 다음 재시도 때 진행");
+                return;
+            }
+        }
+    }
+
+    private TopicDeleteJob start(TopicDeleteJob.Scope scope, String rootElementId, String chatRoomId, String creatorId) {
+        String jobId = UUID.randomUUID().toString();
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("jobId", jobId);
+        parameters.put("scope", scope.name());
+        parameters.put("rootElementId", rootElementId);
+        parameters.put("chatRoomId", chatRoomId);
+        parameters.put("creatorId", creatorId);
+        try (Session session = session()) {
+            session.executeWrite(tx -> tx.run(CREATE_JOB, parameters).consume());
+        }
+        try {
+            executor.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            // 작업 노드는 이미 저장되었으므로 재시도 주기에 진행
+            log.warn("마인드맵 삭제 작업 {} 대기열이 가득 참, 다음 재시도 때 진행", jobId);
+        }
+
+        TopicDeleteJob job = new TopicDeleteJob();
+        job.setJobId(jobId);
+        job.setScope(scope);
+        job.setState(TopicDeleteJob.State.MARKING);
+        job.setRootElementId(rootElementId);
+        job.setChatRoomId(chatRoomId);
+        job.setCreatorId(creatorId);
+        return job;
+    }
+
+    private void run(String jobId) {
+        TopicDeleteJob job;
+        try (Session session = session()) {
+            List<Record> claimed = session.executeWrite(
+                    tx -> tx.run(CLAIM_JOB, Map.of("jobId", jobId, "lease", lease.toMillis())).list());
+            if (claimed.isEmpty()) {
+                log.info("마인드맵 삭제 작업 {} 는 다른 인스턴스가 처리 중이거나 이미 완료됨", jobId);
+                return;
+            }
+            job = toJob(claimed.get(0).get("j").asNode());
+
+            if (job.getState() != TopicDeleteJob.State.DELETING) {
+                mark(session, job);
+                session.run(START_DELETING, Map.of("jobId", jobId)).consume();
+                // 표시가 끝나면 조회에서 이미 사라졌으므로 이때 알림
+                mindMapEventPublisher.publish(job.getScope() == TopicDeleteJob.Scope.SUBTREE
+                        ? MindMapEvent.subtreeDeleted(job.getCreatorId(), job.getChatRoomId(), job.getRootElementId())
+                        : MindMapEvent.mindMapDeleted(job.getCreatorId(), job.getChatRoomId()));
+            }
+
+            long deleted = 0;
+            Map<String, Object> parameters = Map.of("jobId", jobId, "batchSize", batchSize, "lease", lease.toMillis());
+            while (true) {
+                long batch = session.executeWrite(tx -> tx.run(DELETE_BATCH, parameters).single().get("deleted").asLong());
+                if (batch == 0) {
+                    break;
+                }
+                deleted += batch;
+                log.debug("마인드맵 삭제 작업 {}: {}개 삭제", jobId, deleted);
+            }
+            session.run(FINISH_JOB, Map.of("jobId", jobId)).consume();
+            log.info("마인드맵 삭제 작업 {} 완료 ({} {}개 노드)", jobId, job.getScope(), deleted);
+        } catch (Exception e) {
+            log.error("마인드맵 삭제 작업 {} 실패, 다음 재시도 때 다시 시도", jobId, e);
+            try (Session session = session()) {
+                session.run(FAIL_JOB, Map.of("jobId", jobId, "error", String.valueOf(e.getMessage()))).consume();
+            } catch (Exception ignored) {
+                // lease 가 끝나면 다시 시도됨
+            }
+        }
+    }
+
+    private void mark(Session session, TopicDeleteJob job) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("jobId", job.getJobId());
+        parameters.put("rootElementId", job.getRootElementId());
+        parameters.put("chatRoomId", job.getChatRoomId());
+        parameters.put("batchSize", batchSize);
+        parameters.put("lease", lease.toMillis());
+        String query = job.getScope() == TopicDeleteJob.Scope.SUBTREE ? MARK_SUBTREE_BATCH : MARK_CHAT_ROOM_BATCH;
+        while (session.executeWrite(tx -> tx.run(query, parameters).single().get("marked").asLong()) > 0) {
+            log.debug("마인드맵 삭제 작업 {}: 삭제 대상 표시 중", job.getJobId());
+        }
+    }
+
+    private Session session() {
+        return driver.session(SessionConfig.forDatabase(database));
+    }
+
+    private static TopicDeleteJob toJob(Node node) {
+        TopicDeleteJob job = new TopicDeleteJob();
+        job.setJobId(node.get("job_id").asString());
+        job.setScope(TopicDeleteJob.Scope.valueOf(node.get("scope").asString()));
+        job.setState(TopicDeleteJob.State.valueOf(node.get("state").asString()));
+        job.setRootElementId(node.get("root_element_id").asString(null));
+        job.setChatRoomId(node.get("chat_room_id").asString(null));
+        job.setCreatorId(node.get("creator_id").asString(null));
+        job.setTotal(node.get("total").asLong(0));
+        job.setDeleted(node.get("deleted").asLong(0));
+        job.setError(node.get("error").asString(null));
+        return job;
+    }
+}
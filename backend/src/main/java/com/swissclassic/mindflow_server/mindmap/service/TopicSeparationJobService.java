@@ -0,0 +1,428 @@
+package com.swissclassic.mindflow_server.mindmap.service;
+
+import com.swissclassic.mindflow_server.conversation.model.entity.ChatLog;
+import com.swissclassic.mindflow_server.conversation.model.entity.ChatRoom;
+import com.swissclassic.mindflow_server.conversation.model.entity.ConversationSummary;
+import com.swissclassic.mindflow_server.conversation.service.ChatLogService;
+import com.swissclassic.mindflow_server.conversation.service.ChatRoomService;
+import com.swissclassic.mindflow_server.conversation.service.ConversationSummaryService;
+import com.swissclassic.mindflow_server.mindmap.model.dto.MindMapEvent;
+import com.swissclassic.mindflow_server.mindmap.model.dto.TopicSeparationJob;
+import com.swissclassic.mindflow_server.mindmap.model.entity.TopicRefs;
+import com.swissclassic.mindflow_server.mindmap.repository.TopicRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.types.Node;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+// 주제 분리 (saga)
+// 요청 스레드: 노드 확인 -> 노드 제목을 임시 제목으로 새 채팅방 생성 -> 작업 노드 저장 후 바로 응답
+// 백그라운드: 요약본 복사 -> 대화 기록 복사 -> Neo4j 하위 트리 이동 -> LLM 제목으로 변경
+// - 각 단계는 다시 실행해도 결과가 같고, 끝난 단계는 작업 노드에 기록되어 재시작 시 다음 단계부터 진행
+// - 실패했거나 lease 가 끝난 작업, 대기열이 가득 차서 시작하지 못한 작업은 retry-interval 마다 다시 시도
+// - 하위 트리 이동 전에 실패하면 복사한 요약본/대화 기록과 새 채팅방을 지워서 되돌림 (이동 후의 제목 생성 실패는 임시 제목 유지)
+@Service
+@Slf4j
+public class TopicSeparationJobService {
+
+    private static final int TITLE_MAX_LENGTH = 30;
+
+    private static final String CREATE_JOB = """
+            CREATE (j:TopicSeparationJob {job_id: $jobId, state: 'RUNNING', step: 'ROOM_CREATED',
+                                          element_id: $elementId, old_chat_room_id: $oldChatRoomId,
+                                          new_chat_room_id: $newChatRoomId, creator_id: $creatorId,
+                                          mongo_ref: $mongoRef, title: $title,
+                                          created_at: datetime(), updated_at: datetime()})
+            """;
+
+    // 먼저 작업 노드에 쓰기 lock 을 잡은 뒤 조건을 확인하므로 여러 인스턴스가 동시에 claim 해도 한 곳만 성공
+    private static final String CLAIM_JOB = """
+            MATCH (j:TopicSeparationJob {job_id: $jobId})
+            SET j._lock = true
+            REMOVE j._lock
+            WITH j
+            WHERE j.state IN ['RUNNING', 'COMPENSATING'] AND (j.lease_until IS NULL OR j.lease_until < datetime())
+            SET j.lease_until = datetime() + duration({milliseconds: $lease})
+            RETURN j
+            """;
+
+    private static final String FIND_JOB = "MATCH (j:TopicSeparationJob {job_id: $jobId}) RETURN j";
+
+    // 실패(error), lease 만료, 또는 retry-interval 이 지나도록 시작되지 않은 작업
+    private static final String RETRYABLE_JOBS = """
+            MATCH (j:TopicSeparationJob) WHERE j.state IN ['RUNNING', 'COMPENSATING']
+              AND (j.lease_until IS NULL OR j.lease_until < datetime())
+              AND (j.error IS NOT NULL OR j.lease_until IS NOT NULL
+                   OR j.updated_at < datetime() - duration({milliseconds: $retryInterval}))
+            RETURN j.job_id AS jobId
+            """;
+
+    private static final String UPDATE_JOB = """
+            MATCH (j:TopicSeparationJob {job_id: $jobId})
+            SET j.state = $state, j.step = $step, j.title = $title, j.error = $error,
+                j.lease_until = CASE WHEN $state IN ['DONE', 'COMPENSATED'] THEN null
+                                     ELSE datetime() + duration({milliseconds: $lease}) END,
+                j.updated_at = datetime()
+            """;
+
+    private static final String RELEASE_JOB = """
+            MATCH (j:TopicSeparationJob {job_id: $jobId})
+            SET j.error = $error, j.lease_until = null, j.updated_at = datetime()
+            """;
+
+    private final Driver driver;
+    private final String database;
+    private final TaskExecutor executor;
+    private final TopicRepository topicRepository;
+    private final ChatRoomService chatRoomService;
+    private final ChatLogService chatLogService;
+    private final ConversationSummaryService conversationSummaryService;
+    private final MindMapEventPublisher mindMapEventPublisher;
+
+    @Value("${mindmap.separation.step-attempts:3}")
+    private int stepAttempts;
+
+    @Value("${mindmap.separation.step-backoff:1s}")
+    private Duration stepBackoff;
+
+    @Value("${mindmap.separation.lease:5m}")
+    private Duration lease;
+
+    @Value("${mindmap.separation.retry-interval:1m}")
+    private Duration retryInterval;
+
+    public TopicSeparationJobService(Driver driver,
+                                     @Value("${spring.neo4j.database:mindmap}") String database,
+                                     @Qualifier("mindmapJobExecutor") TaskExecutor executor,
+                                     TopicRepository topicRepository,
+                                     ChatRoomService chatRoomService,
+                                     ChatLogService chatLogService,
+                                     ConversationSummaryService conversationSummaryService,
+                                     MindMapEventPublisher mindMapEventPublisher) {
+        this.driver = driver;
+        this.database = database;
+        this.executor = executor;
+        this.topicRepository = topicRepository;
+        this.chatRoomService = chatRoomService;
+        this.chatLogService = chatLogService;
+        this.conversationSummaryService = conversationSummaryService;
+        this.mindMapEventPublisher = mindMapEventPublisher;
+    }
+
+    // 새 채팅방(임시 제목)과 작업만 만들고 바로 반환
+    public TopicSeparationJob start(String elementId, Long creatorId) {
+        TopicRefs refs = topicRepository.findMongoRefAndChatRoomId(elementId);
+        if (refs == null || refs.getChat_room_id() == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Topic not found: " + elementId);
+        }
+        long oldChatRoomId;
+        try {
+            oldChatRoomId = Long.parseLong(refs.getChat_room_id());
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Topic has an invalid chat_room_id: " + refs.getChat_room_id());
+        }
+
+        String title = provisionalTitle(refs.getTitle());
+        ChatRoom newChatRoom = chatRoomService.createChatRoom(title, creatorId);
+        log.info("Created chat room {} with provisional title '{}' for separating {}", newChatRoom.getId(), title, elementId);
+
+        TopicSeparationJob job = new TopicSeparationJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setState(TopicSeparationJob.State.RUNNING);
+        job.setStep(TopicSeparationJob.Step.ROOM_CREATED);
+        job.setElementId(elementId);
+        job.setOldChatRoomId(oldChatRoomId);
+        job.setNewChatRoomId(newChatRoom.getId());
+        job.setCreatorId(creatorId);
+        job.setMongoRef(refs.getMongo_ref());
+        job.setTitle(title);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("jobId", job.getJobId());
+        parameters.put("elementId", elementId);
+        parameters.put("oldChatRoomId", oldChatRoomId);
+        parameters.put("newChatRoomId", job.getNewChatRoomId());
+        parameters.put("creatorId", creatorId);
+        parameters.put("mongoRef", job.getMongoRef());
+        parameters.put("title", title);
+        try (Session session = session()) {
+            session.executeWrite(tx -> tx.run(CREATE_JOB, parameters).consume());
+        } catch (RuntimeException e) {
+            // 작업을 남기지 못했으면 이어서 진행할 수 없으므로 방금 만든 채팅방을 지움
+            chatRoomService.deleteChatRoomById(newChatRoom.getId());
+            throw e;
+        }
+
+        try {
+            executor.execute(() -> run(job.getJobId()));
+        } catch (RejectedExecutionException e) {
+            // 작업 노드는 이미 저장되었으므로 재시도 주기에 진행
+            log.warn("주제 분리 작업 {} 대기열이 가득 참, 다음 재시도 때 진행", job.getJobId());
+        }
+        return job;
+    }
+
+    public Optional<TopicSeparationJob> findJob(String jobId) {
+        try (Session session = session()) {
+            List<Record> records = session.run(FIND_JOB, Map.of("jobId", jobId)).list();
+            return records.isEmpty() ? Optional.empty() : Optional.of(toJob(records.get(0).get("j").asNode()));
+        }
+    }
+
+    // 시작 시와 retry-interval 마다 끝나지 않은 작업 이어서 진행 (다른 인스턴스가 lease 를 잡고 있으면 건너뜀)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${mindmap.separation.retry-interval:1m}",
+            fixedDelayString = "${mindmap.separation.retry-interval:1m}")
+    public void resumeUnfinishedJobs() {
+        List<String> jobIds;
+        try (Session session = session()) {
+            jobIds = session.run(RETRYABLE_JOBS, Map.of("retryInterval", retryInterval.toMillis()))
+                    .list(record -> record.get("jobId").asString());
+        } catch (Exception e) {
+            log.error("미완료 주제 분리 작업 조회 실패", e);
+            return;
+        }
+        for (String jobId : jobIds) {
+            log.info("미완료 주제 분리 작업 재개: {}", jobId);
+            try {
+                executor.execute(() -> run(jobId));
+            } catch (RejectedExecutionException e) {
+                log.warn("주제 분리 작업 대기열이 가득 참, 나머지는 다음 재시도 때 진행");
+                return;
+            }
+        }
+    }
+
+    private void run(String jobId) {
+        TopicSeparationJob job;
+        try (Session session = session()) {
+            List<Record> claimed = session.executeWrite(
+                    tx -> tx.run(CLAIM_JOB, Map.of("jobId", jobId, "lease", lease.toMillis())).list());
+            if (claimed.isEmpty()) {
+                log.info("주제 분리 작업 {} 는 다른 인스턴스가 처리 중이거나 이미 끝남", jobId);
+                return;
+            }
+            job = toJob(claimed.get(0).get("j").asNode());
+        } catch (Exception e) {
+            log.error("주제 분리 작업 {} 시작 실패", jobId, e);
+            return;
+        }
+
+        try {
+            if (job.getState() == TopicSeparationJob.State.RUNNING) {
+                runSteps(job);
+            }
+            if (job.getState() == TopicSeparationJob.State.COMPENSATING) {
+                compensate(job);
+            }
+        } catch (Exception e) {
+            // 되돌리기까지 실패한 경우: lease 를 풀어두고 다음 재시도 때 같은 상태부터 다시 시도
+            log.error("주제 분리 작업 {} 되돌리기 실패", jobId, e);
+            try (Session session = session()) {
+                session.run(RELEASE_JOB, Map.of("jobId", jobId, "error", String.valueOf(e.getMessage()))).consume();
+            } catch (Exception ignored) {
+                // lease 가 끝나면 다시 시도됨
+            }
+        }
+    }
+
+    private void runSteps(TopicSeparationJob job) {
+        try {
+            if (isBefore(job, TopicSeparationJob.Step.SUMMARY_COPIED)) {
+                withRetry(job, () -> copySummary(job));
+                advance(job, TopicSeparationJob.Step.SUMMARY_COPIED);
+            }
+            if (isBefore(job, TopicSeparationJob.Step.CHAT_LOGS_COPIED)) {
+                withRetry(job, () -> copyChatLogs(job));
+                advance(job, TopicSeparationJob.Step.CHAT_LOGS_COPIED);
+            }
+            if (isBefore(job, TopicSeparationJob.Step.GRAPH_MOVED)) {
+                withRetry(job, () -> topicRepository.separateTopicAndUpdateChatRoom(
+                        job.getElementId(), String.valueOf(job.getNewChatRoomId())));
+                advance(job, TopicSeparationJob.Step.GRAPH_MOVED);
+                publishSeparated(job);
+            }
+        } catch (Exception e) {
+            log.error("주제 분리 작업 {} 단계 실패 ({} 이후), 되돌림", job.getJobId(), job.getStep(), e);
+            job.setState(TopicSeparationJob.State.COMPENSATING);
+            job.setError(String.valueOf(e.getMessage()));
+            save(job);
+            return;
+        }
+
+        // 하위 트리가 이미 옮겨졌으므로 제목 생성이 실패해도 임시 제목으로 완료 처리
+        if (isBefore(job, TopicSeparationJob.Step.TITLE_UPDATED)) {
+            try {
+                updateTitle(job);
+            } catch (Exception e) {
+                log.warn("주제 분리 작업 {} 제목 생성 실패, 임시 제목 유지: {}", job.getJobId(), e.getMessage());
+            }
+            job.setStep(TopicSeparationJob.Step.TITLE_UPDATED);
+        }
+        job.setState(TopicSeparationJob.State.DONE);
+        save(job);
+        log.info("주제 분리 작업 {} 완료: {} -> 채팅방 {}", job.getJobId(), job.getElementId(), job.getNewChatRoomId());
+    }
+
+    private void copySummary(TopicSeparationJob job) {
+        if (conversationSummaryService.findByChatRoomId(job.getNewChatRoomId()) != null) {
+            return;
+        }
+        ConversationSummary oldSummary = conversationSummaryService.findByChatRoomId(job.getOldChatRoomId());
+        if (oldSummary == null) {
+            log.warn("No conversation summary found for chat room {}", job.getOldChatRoomId());
+            return;
+        }
+        ConversationSummary newSummary = new ConversationSummary();
+        newSummary.setChatRoomId(job.getNewChatRoomId());
+        newSummary.setSummaryContent(oldSummary.getSummaryContent());
+        newSummary.setTimestamp(Instant.now().toString());
+        conversationSummaryService.saveConversationSummary(newSummary);
+    }
+
+    // 선택한 노드뿐 아니라 함께 옮겨가는 하위 노드들이 참조하는 대화 기록까지 한 번에 복사
+    private void copyChatLogs(TopicSeparationJob job) {
+        List<String> mongoRefs = topicRepository.findSubtreeMongoRefs(job.getElementId());
+        if (mongoRefs.isEmpty()) {
+            log.warn("Subtree of {} has no mongo_ref, skipping chat log copy", job.getElementId());
+            return;
+        }
+        chatLogService.copyChatLogsToRoom(mongoRefs, job.getOldChatRoomId(), job.getNewChatRoomId());
+    }
+
+    private void updateTitle(TopicSeparationJob job) {
+        ChatLog chatLog = job.getMongoRef() == null ? null : chatLogService.findByMongoRef(job.getMongoRef());
+        if (chatLog == null) {
+            return;
+        }
+        String title = chatRoomService.getTitle(chatLog.getQuestion());
+        if (title != null && !title.isBlank()) {
+            chatRoomService.updateTitle(job.getNewChatRoomId(), title);
+            job.setTitle(title);
+        }
+    }
+
+    private void publishSeparated(TopicSeparationJob job) {
+        mindMapEventPublisher.publish(MindMapEvent.topicSeparated(String.valueOf(job.getCreatorId()),
+                String.valueOf(job.getOldChatRoomId()), String.valueOf(job.getNewChatRoomId()), job.getElementId()));
+    }
+
+    // 하위 트리 이동까지 가지 못했을 때 호출됨: 새 채팅방에 복사한 것과 채팅방 자체를 지움
+    private void compensate(TopicSeparationJob job) {
+        long newChatRoomId = job.getNewChatRoomId();
+        if (isGraphMoved(job)) {
+            // 하위 트리 이동은 커밋됐는데 GRAPH_MOVED 기록만 실패한 경우: 노드가 새 채팅방을 가리키므로 되돌리지 않고 마저 진행
+            log.warn("주제 분리 작업 {}: 하위 트리가 이미 채팅방 {} 로 옮겨져 있어 되돌리지 않고 완료", job.getJobId(), newChatRoomId);
+            job.setState(TopicSeparationJob.State.RUNNING);
+            job.setError(null);
+            advance(job, TopicSeparationJob.Step.GRAPH_MOVED);
+            publishSeparated(job);
+            runSteps(job);
+            return;
+        }
+        chatLogService.deleteChatLogsByChatRoomId(newChatRoomId);
+        conversationSummaryService.deleteConversationSummaryByChatRoomId(newChatRoomId);
+        chatRoomService.deleteChatRoomById(newChatRoomId);
+        job.setState(TopicSeparationJob.State.COMPENSATED);
+        save(job);
+        log.info("주제 분리 작업 {} 되돌림: 채팅방 {} 삭제", job.getJobId(), newChatRoomId);
+    }
+
+    // 이동은 하위 트리 전체를 한 트랜잭션에서 바꾸므로 선택한 노드만 확인하면 됨
+    private boolean isGraphMoved(TopicSeparationJob job) {
+        TopicRefs refs = topicRepository.findMongoRefAndChatRoomId(job.getElementId());
+        return refs != null && String.valueOf(job.getNewChatRoomId()).equals(refs.getChat_room_id());
+    }
+
+    private void withRetry(TopicSeparationJob job, Runnable step) {
+        long backoff = stepBackoff.toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                step.run();
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= stepAttempts) {
+                    throw e;
+                }
+                log.warn("주제 분리 작업 {} 단계 재시도 {}/{}: {}", job.getJobId(), attempt, stepAttempts, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                backoff *= 2;
+            }
+        }
+    }
+
+    private static boolean isBefore(TopicSeparationJob job, TopicSeparationJob.Step step) {
+        return job.getStep().ordinal() < step.ordinal();
+    }
+
+    private void advance(TopicSeparationJob job, TopicSeparationJob.Step step) {
+        job.setStep(step);
+        save(job);
+    }
+
+    private void save(TopicSeparationJob job) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("jobId", job.getJobId());
+        parameters.put("state", job.getState().name());
+        parameters.put("step", job.getStep().name());
+        parameters.put("title", job.getTitle());
+        parameters.put("error", job.getError());
+        parameters.put("lease", lease.toMillis());
+        try (Session session = session()) {
+            session.executeWrite(tx -> tx.run(UPDATE_JOB, parameters).consume());
+        }
+    }
+
+    private static String provisionalTitle(String nodeTitle) {
+        if (nodeTitle == null || nodeTitle.isBlank()) {
+            return "새 주제";
+        }
+        String title = nodeTitle.strip();
+        return title.length() > TITLE_MAX_LENGTH ? title.substring(0, TITLE_MAX_LENGTH) + "..." : title;
+    }
+
+    private Session session() {
+        return driver.session(SessionConfig.forDatabase(database));
+    }
+
+    private static TopicSeparationJob toJob(Node node) {
+        TopicSeparationJob job = new TopicSeparationJob();
+        job.setJobId(node.get("job_id").asString());
+        job.setState(TopicSeparationJob.State.valueOf(node.get("state").asString()));
+        job.setStep(TopicSeparationJob.Step.valueOf(node.get("step").asString()));
+        job.setElementId(node.get("element_id").asString(null));
+        job.setOldChatRoomId(node.get("old_chat_room_id").isNull() ? null : node.get("old_chat_room_id").asLong());
+        job.setNewChatRoomId(node.get("new_chat_room_id").isNull() ? null : node.get("new_chat_room_id").asLong());
+        job.setCreatorId(node.get("creator_id").isNull() ? null : node.get("creator_id").asLong());
+        job.setMongoRef(node.get("mongo_ref").asString(null));
+        job.setTitle(node.get("title").asString(null));
+        job.setError(node.get("error").asString(null));
+        return job;
+    }
+}
@@ -1,28 +1,31 @@
 package com.swissclassic.mindflow_server.mindmap.service;
 
 import com.swissclassic.mindflow_server.conversation.model.entity.AnswerSentence;
-import com.swissclassic.mindflow_server.conversation.model.entity.ChatLog;
-import com.swissclassic.mindflow_server.conversation.model.entity.ChatRoom;
-import com.swissclassic.mindflow_server.conversation.model.entity.ConversationSummary;
-import com.swissclassic.mindflow_server.conversation.service.ChatLogService;
-import com.swissclassic.mindflow_server.conversation.service.ChatRoomService;
-import com.swissclassic.mindflow_server.conversation.service.ConversationSummaryService;
+import com.swissclassic.mindflow_server.mindmap.model.dto.MindMapDelta;
+import com.swissclassic.mindflow_server.mindmap.model.dto.MindMapEvent;
+import com.swissclassic.mindflow_server.mindmap.model.dto.MindMapGraph;
+import com.swissclassic.mindflow_server.mindmap.model.dto.TopicDeleteJob;
 import com.swissclassic.mindflow_server.mindmap.model.dto.TopicDTO;
 import com.swissclassic.mindflow_server.mindmap.model.entity.Topic;
 import com.swissclassic.mindflow_server.mindmap.model.entity.TopicRefs;
+import com.swissclassic.mindflow_server.mindmap.repository.TopicGraphReader;
 import com.swissclassic.mindflow_server.mindmap.repository.TopicRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,155 +33,163 @@ import java.util.stream.Collectors;
 @Slf4j
 public class TopicService {
 
-    private final ChatRoomService chatRoomService;
-    private final ChatLogService chatLogService;
     private final TopicRepository topicRepository;
-    private final ConversationSummaryService conversationSummaryService;
+    private final TopicGraphReader topicGraphReader;
+    private final MindMapEventPublisher mindMapEventPublisher;
+    private final TopicDeleteJobService topicDeleteJobService;
+    private final MindMapCache mindMapCache;
 
     private final MongoTemplate mongoTemplate;
 
+    // 이보다 오래된 since 는 삭제 기록이 정리되었을 수 있으므로 전체 마인드맵을 내려줌
+    @Value("${mindmap.delta.tombstone-retention:7d}")
+    private Duration tombstoneRetention;
+
+    // datetime() 은 쿼리 실행 시각이고 커밋은 그 뒤이므로, 늦게 커밋된 변경을 놓치지 않도록 since 를 조금 앞당겨 조회
+    @Value("${mindmap.delta.overlap:5s}")
+    private Duration deltaOverlap;
 
     @Autowired
-    public TopicService(ChatRoomService chatRoomService,
-                        ChatLogService chatLogService,
-                        TopicRepository topicRepository,
-                        ConversationSummaryService conversationSummaryService,
+    public TopicService(TopicRepository topicRepository,
+                        TopicGraphReader topicGraphReader,
+                        MindMapEventPublisher mindMapEventPublisher,
+                        TopicDeleteJobService topicDeleteJobService,
+                        MindMapCache mindMapCache,
                         MongoTemplate mongoTemplate) {
-        this.chatRoomService = chatRoomService;
-        this.chatLogService = chatLogService;
         this.topicRepository = topicRepository;
-        this.conversationSummaryService = conversationSummaryService;
+        this.topicGraphReader = topicGraphReader;
+        this.mindMapEventPublisher = mindMapEventPublisher;
+        this.topicDeleteJobService = topicDeleteJobService;
+        this.mindMapCache = mindMapCache;
         this.mongoTemplate = mongoTemplate;
     }
 
     public TopicDTO getTopicByUserId(String userId) {
-        List<Map<String, Object>> results = topicRepository.getTopicByUserId(userId);
-
-        if (results.isEmpty()) {
-            return null;
-        }
-
-        Map<String, Object> result = results.get(0);
-
-        TopicDTO dto = new TopicDTO();
-        dto.setAccountId((String) result.get("accountId"));
-        dto.setNodes((List<TopicDTO.NodeDTO>) result.get("nodes"));
-        dto.setRelationships((List<TopicDTO.RelationshipDTO>) result.get("relationships"));
-        dto.setUserId(userId);
-
-        return dto;
+        return mindMapCache.get(userId, null, () -> readTopicDTO(userId, null));
     }
 
     public TopicDTO getMindMapByUserAndChatRoom(String userId, String chatRoomId) {
-        List<Map<String, Object>> results = topicRepository.getMindMapByUserAndChatRoom(userId, chatRoomId);
+        return mindMapCache.get(userId, chatRoomId, () -> readTopicDTO(userId, chatRoomId));
+    }
 
-        if (results.isEmpty()) {
-            return null;
-        }
+    // 기존 응답 형식 (관계는 elementId 문자열로 연결, content 포함)
+    private TopicDTO readTopicDTO(String userId, String chatRoomId) {
+        List<TopicDTO.NodeDTO> nodes = new ArrayList<>();
+        List<TopicDTO.RelationshipDTO> relationships = new ArrayList<>();
 
-        Map<String, Object> result = results.get(0);
+        topicGraphReader.read(userId, chatRoomId, true, nodes::add,
+                (source, target, type) -> relationships.add(toRelationship(source, target, type)));
 
         TopicDTO dto = new TopicDTO();
-        dto.setAccountId((String) result.get("accountId"));
-        dto.setChatRoomId((String) result.get("chatRoomId"));
-        dto.setNodes((List<TopicDTO.NodeDTO>) result.get("nodes"));
-        dto.setRelationships((List<TopicDTO.RelationshipDTO>) result.get("relationships"));
+        dto.setChatRoomId(chatRoomId);
+        dto.setNodes(nodes);
+        dto.setRelationships(relationships);
         dto.setUserId(userId);
 
         return dto;
     }
 
-    public void deleteSubtopics(String elementId) {
-        topicRepository.deleteSubtopicsByElementId(elementId);
+    // 가벼운 응답 형식: 관계는 nodes 배열 index 로, content 는 요청할 때만
+    public MindMapGraph getMindMapGraph(String userId, String chatRoomId, boolean includeContent) {
+        List<TopicDTO.NodeDTO> nodes = new ArrayList<>();
+        Map<String, Integer> indexById = new HashMap<>();
+        List<MindMapGraph.Edge> edges = new ArrayList<>();
+
+        topicGraphReader.read(userId, chatRoomId, includeContent,
+                node -> {
+                    indexById.put(node.getId(), nodes.size());
+                    nodes.add(node);
+                },
+                (source, target, type) -> {
+                    Integer sourceIndex = indexById.get(source);
+                    Integer targetIndex = indexById.get(target);
+                    // 조회 범위 밖(다른 채팅방/유저) 노드로 향하는 관계는 제외
+                    if (sourceIndex != null && targetIndex != null) {
+                        edges.add(new MindMapGraph.Edge(sourceIndex, targetIndex, type));
+                    }
+                });
+
+        return new MindMapGraph(userId, chatRoomId, nodes, edges);
     }
 
-
-    // 주제 분리
-    @Transactional
-    public Long seperateTopic(String elementId, Long creatorId) {
-        log.info("Starting topic separation for elementId: {}", elementId);
-
-        // 1. 선택한 노드의 mongo_ref와 chatRoomId 가져오기
-        TopicRefs refs = topicRepository.findMongoRefAndChatRoomId(elementId);
-        log.info("Found TopicRefs - mongoRef: {}, chatRoomId: {}",
-                refs.getMongo_ref(), refs.getChat_room_id());
-
-        // MongoDB에서 원본 대화 내용 가져오기
-        ChatLog chatLog = chatLogService.findByMongoRef(refs.getMongo_ref());
-        if (chatLog == null) {
-            log.error("Original chat log not found for mongoRef: {}", refs.getMongo_ref());
-            throw new RuntimeException("Original chat log not found");
+    // since(이전 응답의 version) 이후 변경분, since 가 없거나 보관 기간보다 오래되었으면 전체
+    @Transactional(readOnly = true)
+    public MindMapDelta getMindMapDelta(String userId, String chatRoomId, Long since) {
+        MindMapDelta delta = new MindMapDelta();
+        delta.setUserId(userId);
+        delta.setChatRoomId(chatRoomId);
+        delta.setSince(since);
+        // 조회 전에 version 을 정해두면 조회 중에 생긴 변경은 다음 요청에서 다시 받게 됨
+        long version = topicGraphReader.currentVersion();
+        delta.setVersion(version);
+
+        if (since == null || since < version - tombstoneRetention.toMillis()) {
+            TopicDTO snapshot = readTopicDTO(userId, chatRoomId);
+            delta.setFull(true);
+            delta.setNodes(snapshot.getNodes());
+            delta.setRelationships(snapshot.getRelationships());
+            return delta;
         }
 
-        log.info("------------------------------------------------------------------------------");
-
-        // 2. 새로운 채팅방 생성 - getTitle 사용하고 creatorId 전달
-        String newTitle = chatRoomService.getTitle(chatLog.getQuestion());
-        ChatRoom newChatRoom = chatRoomService.createChatRoom(
-                newTitle,
-                creatorId
-        );
-        Long newChatRoomId = newChatRoom.getId();
-        log.info("Created new chat room with ID: {} and title: {}", newChatRoomId, newTitle);
-
-        log.info("-------------------------------------------------------------------------------");
-
-
+        topicGraphReader.readChanges(userId, chatRoomId, since - deltaOverlap.toMillis(), true,
+                delta.getNodes()::add,
+                (source, target, type) -> delta.getRelationships().add(toRelationship(source, target, type)),
+                tombstone -> {
+                    switch (tombstone.kind()) {
+                        case "node" -> delta.getRemovedNodeIds().add(tombstone.elementId());
+                        // 유저 전체 마인드맵에서는 이동한 노드가 nodes 에 수정으로 다시 오므로 채팅방 단위 조회에서만 제거
+                        case "moved" -> {
+                            if (chatRoomId != null) {
+                                delta.getRemovedNodeIds().add(tombstone.elementId());
+                            }
+                        }
+                        case "edge" -> delta.getRemovedRelationships()
+                                .add(toRelationship(tombstone.source(), tombstone.target(), tombstone.type()));
+                        case "room" -> delta.getRemovedChatRoomIds().add(tombstone.chatRoomId());
+                        default -> log.warn("알 수 없는 TopicTombstone 종류: {}", tombstone.kind());
+                    }
+                });
+        return delta;
+    }
 
-        // MongoDB에서 이전 채팅방의 대화 요약본을 찾아서 복사하고 chatroomid를 갱신
-        ConversationSummary oldSummary = conversationSummaryService.findByChatRoomId(Long.parseLong(refs.getChat_room_id()));
-        if (oldSummary != null) {
-            ConversationSummary newSummary = new ConversationSummary();
-            newSummary.setChatRoomId(newChatRoomId);
-            newSummary.setSummaryContent(oldSummary.getSummaryContent());
-            newSummary.setTimestamp(Instant.now().toString());
+    private static TopicDTO.RelationshipDTO toRelationship(String source, String target, String type) {
+        TopicDTO.RelationshipDTO relationship = new TopicDTO.RelationshipDTO();
+        relationship.setSource(source);
+        relationship.setTarget(target);
+        relationship.setType(type);
+        return relationship;
+    }
 
-            conversationSummaryService.saveConversationSummary(newSummary);
-            log.info("Copied conversation summary from chat room {} to {}", refs.getChat_room_id(), newChatRoomId);
-        } else {
-            log.warn("No conversation summary found for chat room {}", refs.getChat_room_id());
+    // 하위 노드가 많으면 백그라운드 삭제 작업을 만들어서 반환, 작으면 바로 삭제하고 null
+    public TopicDeleteJob deleteSubtopics(String elementId) {
+        TopicRefs refs = topicRepository.findMongoRefAndChatRoomId(elementId);
+        if (refs == null) {
+            return null;
         }
-                
-
-
-        log.info("--------------------------------------------------------------------------");
-
-        // 3. MongoDB 데이터 복사 및 업데이트
-        if (refs.getMongo_ref() != null && refs.getChat_room_id() != null) {
-            try {
-                long oldChatRoomId = Long.parseLong(refs.getChat_room_id());
-
-                chatLogService.copyAndUpdateChatLog(
-                        refs.getMongo_ref(),
-                        oldChatRoomId,
-                        newChatRoomId
-                );
-                log.info("Successfully copied chat log");
-            } catch (NumberFormatException e) {
-                log.error("Error parsing chatRoomId: {}", refs.getChat_room_id(), e);
-                throw e;
-            } catch (Exception e) {
-                log.error("Error copying chat log", e);
-                throw e;
-            }
-        } else {
-            log.warn("Missing mongoRef or chatRoomId. mongoRef: {}, chatRoomId: {}",
-                    refs.getMongo_ref(), refs.getChat_room_id());
+        long size = topicRepository.countSubtree(elementId, topicDeleteJobService.countLimit());
+        if (topicDeleteJobService.exceedsThreshold(size)) {
+            return topicDeleteJobService.startSubtreeDelete(elementId, refs.getChat_room_id(), refs.getCreator_id());
         }
+        topicRepository.deleteSubtopicsByElementId(elementId);
+        mindMapEventPublisher.publish(
+                MindMapEvent.subtreeDeleted(refs.getCreator_id(), refs.getChat_room_id(), elementId));
+        return null;
+    }
 
-        // 4. Neo4j 토픽 분리 및 chat_room_id 업데이트
-        topicRepository.separateTopicAndUpdateChatRoom(
-                elementId,
-                String.valueOf(newChatRoomId)
-        );
-        log.info("Successfully updated Neo4j relationships");
-
-        return newChatRoomId;
+    public Optional<TopicDeleteJob> findDeleteJob(String jobId) {
+        return topicDeleteJobService.findJob(jobId);
     }
 
 
-    public void deleteMindMapByChatRoomId(long chatRoomId) {
-        topicRepository.deleteMindMapByChatRoomId(chatRoomId);
+    public TopicDeleteJob deleteMindMapByChatRoomId(long chatRoomId) {
+        long size = topicRepository.countByChatRoomId(chatRoomId, topicDeleteJobService.countLimit());
+        if (topicDeleteJobService.exceedsThreshold(size)) {
+            return topicDeleteJobService.startChatRoomDelete(String.valueOf(chatRoomId),
+                    topicRepository.findCreatorIdByChatRoomId(chatRoomId));
+        }
+        String creatorId = topicRepository.deleteMindMapByChatRoomId(chatRoomId);
+        mindMapEventPublisher.publish(MindMapEvent.mindMapDeleted(creatorId, String.valueOf(chatRoomId)));
+        return null;
     }
 
 
@@ -0,0 +1,60 @@
+package com.swissclassic.mindflow_server.mindmap.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+// 보관 기간이 지난 TopicTombstone 과 끝난 작업(TopicDeleteJob, TopicSeparationJob) 정리
+// 그보다 오래된 since 로 변경분을 요청하면 TopicService 가 전체 마인드맵을 내려주므로 지워도 안전함
+@Component
+@Slf4j
+public class TopicTombstoneJanitor {
+
+    // CALL { } IN TRANSACTIONS 는 자동 커밋 세션에서만 실행 가능
+    private static final String PURGE = """
+            MATCH (t:TopicTombstone)
+            WHERE t.deleted_at < datetime() - duration({milliseconds: $retention})
+            CALL { WITH t DELETE t } IN TRANSACTIONS OF 1000 ROWS
+            """;
+
+    private static final String PURGE_JOBS = """
+            MATCH (j)
+            WHERE (j:TopicDeleteJob OR j:TopicSeparationJob)
+              AND j.state IN ['DONE', 'COMPENSATED'] AND j.updated_at < datetime() - duration({milliseconds: $retention})
+            DELETE j
+            """;
+
+    private final Driver driver;
+    private final String database;
+    private final Duration retention;
+
+    public TopicTombstoneJanitor(Driver driver,
+                                 @Value("${spring.neo4j.database:mindmap}") String database,
+                                 @Value("${mindmap.delta.tombstone-retention:7d}") Duration retention) {
+        this.driver = driver;
+        this.database = database;
+        this.retention = retention;
+    }
+
+    @Scheduled(initialDelayString = "${mindmap.delta.purge-interval:1h}",
+            fixedDelayString = "${mindmap.delta.purge-interval:1h}")
+    public void purgeExpiredTombstones() {
+        try (Session session = driver.session(SessionConfig.forDatabase(database))) {
+            int deleted = session.run(PURGE, Map.of("retention", retention.toMillis()))
+                    .consume().counters().nodesDeleted();
+            session.run(PURGE_JOBS, Map.of("retention", retention.toMillis())).consume();
+            if (deleted > 0) {
+                log.info("보관 기간이 지난 TopicTombstone {}개 삭제", deleted);
+            }
+        } catch (Exception e) {
+            log.error("TopicTombstone 정리 실패", e);
+        }
+    }
+}
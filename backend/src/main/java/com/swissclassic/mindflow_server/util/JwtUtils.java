@@ -4,12 +4,25 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.interfaces.JWTVerifier;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.swissclassic.mindflow_server.account.model.entity.User;
 import com.swissclassic.mindflow_server.config.JwtProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Utility class for handling JWT operations.
@@ -18,17 +31,76 @@ import java.util.Date;
 @Slf4j
 public class JwtUtils {
 
+    /**
+     * Claims carried by access tokens so that requests can be authenticated without loading the user.
+     */
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_USERNAME = "name";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     private final JwtProperties jwtProperties;
 
+    /**
+     * Signing key of new tokens, built once (HMAC key material is not re-derived per token).
+     */
+    private final Algorithm signingAlgorithm;
+
+    /**
+     * Immutable verifier per key id; tokens without a {@code kid} header are verified with the current key.
+     */
+    private final Map<String, JWTVerifier> verifiers;
+
+    /**
+     * Decoded tokens that already passed verification, keyed by the SHA-256 of the token and evicted at {@code exp}.
+     */
+    private final Cache<String, DecodedJWT> verifiedTokens;
+
     @Autowired
     public JwtUtils(JwtProperties jwtProperties) {
         this.jwtProperties = jwtProperties;
-    }
+        this.signingAlgorithm = Algorithm.HMAC256(jwtProperties.getSecret()
+                                                               .getBytes(StandardCharsets.UTF_8));
 
-    private Algorithm getAlgorithm() {
-        log.debug("JWT Secret key = " + jwtProperties.getSecret());
-        return Algorithm.HMAC256(jwtProperties.getSecret()
-                                              .getBytes());
+        Map<String, JWTVerifier> registry = new HashMap<>();
+        if (jwtProperties.getPreviousKeys() != null) {
+            jwtProperties.getPreviousKeys()
+                         .forEach((kid, secret) -> registry.put(kid, JWT.require(
+                                 Algorithm.HMAC256(secret.getBytes(StandardCharsets.UTF_8))).build()));
+        }
+        registry.put(jwtProperties.getKeyId(), JWT.require(signingAlgorithm)
+                                                  .build());
+        this.verifiers = Map.copyOf(registry);
+
+        long maxTtlNanos = jwtProperties.getVerifiedCacheMaxTtl()
+                                        .toNanos();
+        this.verifiedTokens = Caffeine.newBuilder()
+                                      .maximumSize(jwtProperties.getVerifiedCacheMaxSize())
+                                      .expireAfter(new Expiry<String, DecodedJWT>() {
+                                          @Override
+                                          public long expireAfterCreate(String key, DecodedJWT jwt, long currentTime) {
+                                              if (jwt.getExpiresAt() == null) {
+                                                  return maxTtlNanos;
+                                              }
+                                              long remaining = Duration.ofMillis(
+                                                      jwt.getExpiresAt().getTime() - System.currentTimeMillis()).toNanos();
+                                              return Math.max(0L, Math.min(remaining, maxTtlNanos));
+                                          }
+
+                                          @Override
+                                          public long expireAfterUpdate(String key, DecodedJWT jwt, long currentTime,
+                                                                        long currentDuration) {
+                                              return currentDuration;
+                                          }
+
+                                          @Override
+                                          public long expireAfterRead(String key, DecodedJWT jwt, long currentTime,
+                                                                      long currentDuration) {
+                                              return currentDuration;
+                                          }
+                                      })
+                                      .build();
+        log.info("JWT signing key id = {}, accepted key ids = {}", jwtProperties.getKeyId(), verifiers.keySet());
     }
 
     /**
@@ -40,10 +112,35 @@ public class JwtUtils {
     public String generateJwtToken(String username) {
         log.debug("JWT access time = " + jwtProperties.getExpirationMs() + "ms");
         return JWT.create()
+                  .withKeyId(jwtProperties.getKeyId())
                   .withSubject(username)
                   .withIssuedAt(new Date())
                   .withExpiresAt(new Date(System.currentTimeMillis() + jwtProperties.getExpirationMs()))
-                  .sign(getAlgorithm());
+                  .sign(signingAlgorithm);
+    }
+
+    /**
+     * Generates an access token for the given user that carries the claims needed for stateless authentication.
+     *
+     * @param user         the authenticated user
+     * @param tokenVersion the user's current token version (see {@code TokenVersionService})
+     * @return the generated JWT token
+     */
+    public String generateJwtToken(User user, long tokenVersion) {
+        String[] roles = user.getAuthorities()
+                             .stream()
+                             .map(GrantedAuthority::getAuthority)
+                             .toArray(String[]::new);
+        return JWT.create()
+                  .withKeyId(jwtProperties.getKeyId())
+                  .withSubject(user.getAccountId())
+                  .withClaim(CLAIM_USER_ID, user.getId())
+                  .withClaim(CLAIM_USERNAME, user.getUsername())
+                  .withArrayClaim(CLAIM_ROLES, roles)
+                  .withClaim(CLAIM_TOKEN_VERSION, tokenVersion)
+                  .withIssuedAt(new Date())
+                  .withExpiresAt(new Date(System.currentTimeMillis() + jwtProperties.getExpirationMs()))
+                  .sign(signingAlgorithm);
     }
 
     /**
@@ -55,10 +152,13 @@ public class JwtUtils {
     public String generateRefreshToken(String username) {
         log.debug("JWT access time = " + jwtProperties.getRefreshExpirationMs() + "ms");
         return JWT.create()
+                  .withKeyId(jwtProperties.getKeyId())
+                  .withJWTId(UUID.randomUUID()
+                                 .toString()) // rotated tokens issued within the same second must still differ
                   .withSubject(username)
                   .withIssuedAt(new Date())
                   .withExpiresAt(new Date(System.currentTimeMillis() + jwtProperties.getRefreshExpirationMs()))
-                  .sign(getAlgorithm());
+                  .sign(signingAlgorithm);
     }
 
     /**
@@ -69,15 +169,43 @@ public class JwtUtils {
      * @throws Exception if the token is invalid or expired
      */
     public DecodedJWT validateJwtToken(String token) throws Exception {
+        String cacheKey = sha256(token);
+        DecodedJWT cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            JWTVerifier verifier = JWT.require(getAlgorithm())
-                                      .build();
-            return verifier.verify(token);
+            DecodedJWT decodedJWT = JWT.decode(token);
+            String keyId = decodedJWT.getKeyId() == null ? jwtProperties.getKeyId() : decodedJWT.getKeyId();
+            JWTVerifier verifier = verifiers.get(keyId);
+            if (verifier == null) {
+                throw new Exception("Unknown JWT key id: " + keyId);
+            }
+            DecodedJWT verified = verifier.verify(decodedJWT);
+            verifiedTokens.put(cacheKey, verified);
+            return verified;
         } catch (Exception e) {
             throw new Exception("Invalid JWT token");
         }
     }
 
+    /**
+     * Digest of a token, used wherever a token has to be stored or looked up: the raw token is a bearer credential.
+     *
+     * @param token the raw token
+     * @return the Base64-encoded SHA-256 of the token
+     */
+    public static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                                         .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder()
+                         .encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     /**
      * Extracts the username (subject) from the JWT access token.
      *
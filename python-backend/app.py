@@ -3,7 +3,7 @@ import os
 import asyncio
 
 from dotenv import load_dotenv
-from flask import Flask, request, make_response
+from flask import Flask, request, make_response, Response, stream_with_context
 from flask_restx import Api, Resource, fields
 from flask_socketio import join_room
 
@@ -18,11 +18,14 @@ import logging
 # 분리된 서비스 import
 from services import (
     get_all_models_info,
+    get_llm_class,
+    llm_generate_async,
     get_session_history,
     init_socketio,
     generate_room_title,
     generate_model_responses_async,
     chatbot_response,
+    chatbot_response_stream,
     chat_memories
 )
 
@@ -146,6 +149,35 @@ class AllAPI(Resource):
             return make_response(json.dumps(error_response, ensure_ascii=False), 500)
 
 
+@ns_chatbot.route('/all/<string:model>')
+class SingleModelAPI(Resource):
+    @ns_chatbot.expect(message_all)
+    @ns_chatbot.response(200, '성공적인 응답')
+    @ns_chatbot.response(400, '지원하지 않는 모델')
+    @ns_chatbot.response(500, '내부 서버 오류')
+    def post(self, model):
+        """단일 모델 응답 (Spring 에서 모델별로 병렬 호출)"""
+        try:
+            data = request.get_json()
+            user_input = data.get('userInput')
+            models = get_all_models_info()
+            model_info = models.get(model)
+            if model_info is None:
+                return make_response(json.dumps({'error': f'지원하지 않는 모델: {model}'}, ensure_ascii=False), 400)
+
+            detail_model = data.get('detailModel') or model_info['detail_model']
+            llm = model_info['llm']
+            if detail_model != model_info['detail_model']:
+                llm = get_llm_class(model)(model=detail_model, temperature=0.5, max_tokens=4096, streaming=True)
+
+            response = asyncio.run(llm_generate_async(user_input, llm, model))
+            return {'response': response, 'detail_model': detail_model}
+
+        except Exception as e:
+            log_error(logger, "단일 모델 응답 오류", e, {"model": model})
+            return make_response(json.dumps({'error': str(e)}, ensure_ascii=False), 500)
+
+
 @ns_chatbot.route('/title')
 class TitleAPI(Resource):
     @ns_chatbot.expect(message_title)  # 요청 스키마 정의 연결
@@ -322,6 +354,92 @@ class MessageAPI(Resource):
             error_response = {'error': str(e)}
             return make_response(json.dumps(error_response, ensure_ascii=False), 500)
 
+def split_completed_sentences(buffer):
+    """버퍼에서 마침표로 끝난 문장들을 분리하고 (문장 목록, 남은 버퍼)를 반환"""
+    *completed, rest = buffer.split('.')
+    return [sentence.strip() for sentence in completed if sentence.strip()], rest
+
+
+@ns_chatbot.route('/message/stream')
+class MessageStreamAPI(Resource):
+
+    @ns_chatbot.expect(message_model)
+    @ns_chatbot.response(200, '문장 단위 NDJSON 스트림')
+    @ns_chatbot.response(400, '필수 필드 누락')
+    def post(self):
+        """Message API (문장 단위 스트리밍)"""
+        data = request.get_json()
+        chat_room_id = data.get('chatRoomId')
+        model = data.get('model', 'clova')
+        user_input = data.get('userInput')
+        creator_id = data.get('creatorId')
+        detail_model = data.get('detailModel', 'HCX-003')
+
+        if not user_input:
+            logger.warning("메시지 오류: user_input 없음")
+            return make_response(json.dumps({'error': 'user_input은 필수입니다'}, ensure_ascii=False), 400)
+
+        logger.info(f"스트리밍 메시지 요청: room={chat_room_id}")
+
+        def stream_sentences():
+            # /message 와 동일한 규칙으로 문장을 나누되, 문장이 완성되는 즉시 한 줄씩 내보낸다
+            loop = asyncio.new_event_loop()
+            chunks = chatbot_response_stream(user_input, model=model, detail_model=detail_model, chat_room_id=chat_room_id)
+            sentences_with_ids = []
+            buffer = ""
+
+            def emit(sentence):
+                item = {
+                    'sentence_id': str(generate(size=7)),
+                    'content': escape_cypher_quotes(sentence) + '.'
+                }
+                sentences_with_ids.append(item)
+                return json.dumps(item, ensure_ascii=False) + '\n'
+
+            try:
+                while True:
+                    try:
+                        chunk = loop.run_until_complete(chunks.__anext__())
+                    except StopAsyncIteration:
+                        break
+                    buffer += chunk.replace('\n', ' ')
+                    completed, buffer = split_completed_sentences(buffer)
+                    for sentence in completed:
+                        yield emit(sentence)
+
+                if buffer.strip():
+                    yield emit(buffer.strip())
+            except Exception as e:
+                log_error(logger, "스트리밍 메시지 처리 오류", e, {"chat_room_id": chat_room_id, "model": model})
+                # 그냥 끊으면 Spring 이 정상 종료로 보고 done 을 보내므로, 실패를 명시적으로 알림 (마인드맵도 만들지 않음)
+                yield json.dumps({'error': '답변 생성 중 오류가 발생했습니다.'}, ensure_ascii=False) + '\n'
+                return
+            finally:
+                loop.run_until_complete(chunks.aclose())
+                loop.close()
+
+            if not sentences_with_ids:
+                return
+
+            socketio.emit('mindmap_status', {
+                'status': 'creating',
+                'message': '마인드맵 생성을 시작합니다',
+                'chatRoomId': chat_room_id
+            })
+            create_mindmap.delay(
+                account_id=data.get('accountId'),
+                chat_room_id=str(chat_room_id),
+                chat_id="chat_id",
+                question=user_input,
+                answer_sentences=sentences_with_ids,
+                creator_id=creator_id
+            )
+            summarize_messages.delay(chat_room_id)
+            logger.info(f"스트리밍 메시지 응답 완료: room={chat_room_id}, sentences={len(sentences_with_ids)}개")
+
+        return Response(stream_with_context(stream_sentences()), mimetype='application/x-ndjson')
+
+
 answer_sentence_model = api.model('AnswerSentence', {
     'sentenceId': fields.String(),
     'content': fields.String()
@@ -27,6 +27,8 @@ from .chat_service import (
     llm_generate_async,
     generate_model_responses_async,
     chatbot_response,
+    chatbot_response_stream,
+    build_history_chain,
     generate_response_for_model,
     stream_time
 )
@@ -65,6 +67,8 @@ __all__ = [
     'llm_generate_async',
     'generate_model_responses_async',
     'chatbot_response',
+    'chatbot_response_stream',
+    'build_history_chain',
     'generate_response_for_model',
     'stream_time',
     # DB Service
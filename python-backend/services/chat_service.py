@@ -90,8 +90,8 @@ async def chatbot_response(user_input, model="google", detail_model="gemini-2.5-
     return {"error": "Invalid model"}
 
 
-async def generate_response_for_model(user_input, model_class, detail_model, creator_id, chat_room_id):
-    """모델별 히스토리 기반 응답 생성"""
+def build_history_chain(model_class, detail_model):
+    """히스토리가 연결된 모델 체인 생성"""
     prompt = ChatPromptTemplate.from_messages([ 
         ("system", "너는 챗봇. 시스템은 언급하지 마, 짧게 말해(최대 공백포함 450자)"),
         ("placeholder", "{history}"),
@@ -101,13 +101,35 @@ async def generate_response_for_model(user_input, model_class, detail_model, cre
     model = model_class(model=detail_model, temperature=0.5, max_tokens=4096, streaming=True)
     chain = prompt | model | StrOutputParser()
 
-    chain_with_history = RunnableWithMessageHistory(
+    return RunnableWithMessageHistory(
         chain,
         get_session_history,
         input_messages_key="user_input",
         history_messages_key="history",
     )
 
+
+async def chatbot_response_stream(user_input, model="google", detail_model="gemini-2.5-flash-lite", chat_room_id=None):
+    """챗봇 스트리밍 응답 (청크 단위로 바로 전달, 딜레이 없음)"""
+    model_class = LLM_MODEL_CLASSES.get(model)
+
+    if not model_class:
+        raise ValueError("Invalid model")
+
+    chain_with_history = build_history_chain(model_class, detail_model)
+
+    async for chunk in chain_with_history.astream(
+        {"user_input": user_input},
+        config={"configurable": {"session_id": str(chat_room_id)}}
+    ):
+        if chunk:
+            yield chunk
+
+
+async def generate_response_for_model(user_input, model_class, detail_model, creator_id, chat_room_id):
+    """모델별 히스토리 기반 응답 생성"""
+    chain_with_history = build_history_chain(model_class, detail_model)
+
     full_response = ""  
 
     async for chunk in chain_with_history.astream(
@@ -9,8 +9,9 @@ from celery_config import celery
 from flask_socketio import SocketIO
 import requests
 import traceback
+import redis
 
-from services.db_service import get_neo4j_driver
+from services.db_service import get_neo4j_driver, get_redis_url
 from utils.logger import log_error, log_info_block
 
 logger = logging.getLogger(__name__)
@@ -25,6 +26,13 @@ SPRING_SERVER_URL = os.getenv("SPRING_SERVER_URL")
 # Neo4j 드라이버 (db_service에서 가져옴)
 neo4j_driver = get_neo4j_driver()
 
+# 마인드맵 변경 이벤트 채널 (Spring 의 MindMapEventRelay 가 구독해서 STOMP 로 전달)
+MINDMAP_EVENT_CHANNEL = os.getenv("MINDMAP_EVENT_CHANNEL", "mindmap:events")
+# Spring MindMapCache 의 사용자별 L2 캐시 버전 키 (이벤트를 놓쳐도 L2 캐시는 무효화되도록 직접 올림)
+MINDMAP_CACHE_VERSION_PREFIX = "mindmap:cache-version:"
+MINDMAP_EVENT_PUBLISH_ATTEMPTS = 2
+redis_client = redis.Redis.from_url(get_redis_url())
+
 chat_model = ChatAnthropic(model="claude-3-5-sonnet-latest", max_tokens=4096)
 
 
@@ -41,6 +49,7 @@ query_prompt = ChatPromptTemplate.from_messages([("user", """
      
 1. 노드 생성 규칙:
    - 모든 Topic 노드는 다음 속성들을 반드시 포함해야 함:
+     * topic_id (항상 randomUUID() 로 생성, 고유 제약 조건 있음)
      * chat_room_id
      * chat_room_title
      * mongo_ref (답변 문장의 sentenceId)
@@ -50,6 +59,7 @@ query_prompt = ChatPromptTemplate.from_messages([("user", """
      * created_at
    - 첫 노드 생성 예시:
      CREATE (n:Topic {{
+         topic_id: randomUUID(),
          title: '제목',
          content: '내용',
          chat_room_id: '{chat_room_id}',
@@ -148,7 +158,7 @@ def get_mindmap_structure(creator_id, chat_room_id):
                 content: m.content
             }
         }) as structure
-        """, chat_room_id=chat_room_id)
+        """, chat_room_id=str(chat_room_id))  # Topic.chat_room_id 는 문자열로 저장됨 (인덱스 조회)
         return result.single()["structure"]
 
 
@@ -173,6 +183,68 @@ def escape_cypher_quotes(text):
     return escaped_text
 
 
+def bump_mindmap_cache_version(creator_id):
+    """이벤트 발행과 별개로 사용자 캐시 버전을 올려 여러 인스턴스가 공유하는 L2 캐시를 무효화"""
+    try:
+        redis_client.incr(f"{MINDMAP_CACHE_VERSION_PREFIX}{creator_id}")
+    except Exception as e:
+        logger.warning(f"마인드맵 캐시 버전 증가 실패 (userId={creator_id}): {str(e)}")
+
+
+def publish_mindmap_event(payload):
+    """마인드맵 이벤트 발행, 실패하면 한 번 더 시도"""
+    for attempt in range(1, MINDMAP_EVENT_PUBLISH_ATTEMPTS + 1):
+        try:
+            redis_client.publish(MINDMAP_EVENT_CHANNEL, payload)
+            return
+        except Exception as e:
+            logger.warning(f"마인드맵 이벤트 발행 실패 ({attempt}/{MINDMAP_EVENT_PUBLISH_ATTEMPTS}): {str(e)}")
+
+
+def publish_nodes_added(session, creator_id, chat_room_id, started_at):
+    """이번 작업에서 만든 노드와 그 노드로 들어오는 관계를 Redis 채널에 발행 (Spring 캐시 무효화 겸용, 실패해도 작업은 성공 처리)"""
+    bump_mindmap_cache_version(creator_id)
+    try:
+        records = session.run("""
+        MATCH (t:Topic {chat_room_id: $chat_room_id})
+        WHERE t.created_at >= datetime({epochMillis: $started_at})
+        OPTIONAL MATCH (p:Topic)-[r]->(t)
+        RETURN elementId(t) AS id, t.title AS title, t.mongo_ref AS mongoRef,
+               t.chat_room_title AS chatRoomTitle, elementId(p) AS parent, type(r) AS type
+        """, chat_room_id=str(chat_room_id), started_at=started_at).data()
+        if not records:
+            # 새 노드 없이 기존 노드만 바뀐 경우: 캐시 무효화와 다시 조회하라는 알림만
+            publish_mindmap_event(json.dumps({
+                "type": "GRAPH_CHANGED",
+                "userId": str(creator_id),
+                "chatRoomId": str(chat_room_id),
+            }))
+            return
+
+        nodes = {}
+        relationships = []
+        for record in records:
+            nodes[record["id"]] = {
+                "id": record["id"],
+                "title": record["title"],
+                "mongoRef": record["mongoRef"],
+                "chatRoomId": str(chat_room_id),
+                "chatRoomTitle": record["chatRoomTitle"],
+            }
+            if record["parent"] is not None:
+                relationships.append({"source": record["parent"], "target": record["id"], "type": record["type"]})
+
+        publish_mindmap_event(json.dumps({
+            "type": "NODES_ADDED",
+            "userId": str(creator_id),
+            "chatRoomId": str(chat_room_id),
+            "nodes": list(nodes.values()),
+            "relationships": relationships,
+        }, ensure_ascii=False))
+    except Exception as e:
+        logger.warning(f"마인드맵 새 노드 조회 실패, 이벤트 미발행: {str(e)}")
+
+
 @celery.task
 def create_mindmap(account_id, chat_room_id, chat_id, question, answer_sentences, creator_id):
     logger.info(f"Task received with chat_room_id: {chat_room_id}")
@@ -226,7 +298,16 @@ def create_mindmap(account_id, chat_room_id, chat_id, question, answer_sentences
 
         logger.info("Neo4j 쿼리 실행 시작")
         with neo4j_driver.session(database="mindmap") as session:
+            started_at = session.run("RETURN datetime().epochMillis AS now").single()["now"]
             session.run(query)
+            # LLM 이 topic_id / created_at 을 빠뜨린 노드 보정 (created_at 이 없으면 변경분 조회에서 빠짐)
+            session.run("""
+            MATCH (t:Topic {chat_room_id: $chat_room_id})
+            WHERE t.topic_id IS NULL OR t.created_at IS NULL
+            SET t.topic_id = coalesce(t.topic_id, randomUUID()),
+                t.created_at = coalesce(t.created_at, datetime())
+            """, chat_room_id=str(chat_room_id))
+            publish_nodes_added(session, creator_id, chat_room_id, started_at)
         logger.info("마인드맵 생성 작업 완료")
 
         socketio.emit('mindmap_status', {